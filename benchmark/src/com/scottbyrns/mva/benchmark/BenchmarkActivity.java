@@ -0,0 +1,104 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.util.concurrent.Semaphore;
+
+import com.scottbyrns.mva.ModelViewActivity;
+import com.scottbyrns.mva.reflection.DataEventCallback;
+import com.scottbyrns.mva.reflection.DataEvents;
+import com.scottbyrns.mva.reflection.ModelViewConfiguration;
+
+/**
+ * An activity wired to the benchmark data source and view layer that counts the data events delivered to it.
+ * <p/>
+ * The stubbed {@link android.os.Handler} delivers messages on the thread that sends them, so a benchmark waits for a
+ * load to be delivered by acquiring {@link #getLoads()}.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:05 PM
+ */
+@ModelViewConfiguration(dataSource = BenchmarkActivity.NAME, view = BenchmarkActivity.NAME)
+public class BenchmarkActivity extends ModelViewActivity
+{
+    public static final String NAME = "benchmark";
+
+    private final Semaphore loads = new Semaphore(0);
+    private int annotatedCallbacks;
+
+    /**
+     * Run the activity through onCreate as Android would.
+     */
+    public void create()
+    {
+        onCreate(null);
+    }
+
+    /**
+     * Run the activity through onDestroy as Android would.
+     */
+    public void destroy()
+    {
+        onPause();
+        finish();
+        onDestroy();
+    }
+
+    public Semaphore getLoads()
+    {
+        return loads;
+    }
+
+    public int getAnnotatedCallbacks()
+    {
+        return annotatedCallbacks;
+    }
+
+    @Override
+    public void dataDidLoad()
+    {
+        loads.release();
+    }
+
+    @Override
+    public void dataDidFailToLoad()
+    {
+        loads.release();
+    }
+
+    @Override
+    public void dataDidSave()
+    {
+    }
+
+    @Override
+    public void dataDidFailToSave()
+    {
+    }
+
+    @Override
+    public void viewDidLoad()
+    {
+    }
+
+    @DataEventCallback(eventName = DataEvents.DATA_DID_UPDATE)
+    public void updated()
+    {
+        annotatedCallbacks++;
+    }
+
+    @DataEventCallback(eventName = DataEvents.DATA_DID_UPDATE)
+    public void updatedAgain()
+    {
+        annotatedCallbacks++;
+    }
+}
@@ -0,0 +1,43 @@
+package com.scottbyrns.mva.benchmark;
+
+import android.app.Activity;
+
+import com.scottbyrns.mva.data.BaseDataSource;
+
+/**
+ * A data source that loads and saves instantly so benchmarks measure the framework around it rather than the work.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:05 PM
+ */
+public class BenchmarkDataSource extends BaseDataSource<Object>
+{
+    private static final Object ENTITY = new Object();
+
+    public BenchmarkDataSource(Activity context)
+    {
+        super(context);
+    }
+
+    @Override
+    protected void loadEntity() throws Throwable
+    {
+        setEntity(ENTITY);
+    }
+
+    @Override
+    protected void saveEntity() throws Throwable
+    {
+    }
+}
@@ -0,0 +1,34 @@
+package com.scottbyrns.mva.benchmark;
+
+import com.scottbyrns.mva.view.ViewLayer;
+
+/**
+ * A view layer with nothing to render.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:05 PM
+ */
+public class BenchmarkViewLayer extends ViewLayer
+{
+    @Override
+    public int getViewId()
+    {
+        return 0;
+    }
+
+    @Override
+    public void viewDidRender()
+    {
+    }
+}
@@ -0,0 +1,62 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottbyrns.mva.reflection.ModelViewConfiguration;
+import com.scottbyrns.mva.reflection.ModelViewRegistry;
+
+/**
+ * The cost of finding the configuration of an activity in onCreate, from the registry written by the annotation
+ * processor and from the runtime annotation it falls back to.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:10 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConfigurationBenchmark
+{
+    @Setup
+    public void setUp()
+    {
+        ModelViewRegistry.register(BenchmarkActivity.class, BenchmarkActivity.NAME, BenchmarkActivity.NAME);
+    }
+
+    @Benchmark
+    public ModelViewConfiguration readRegistry()
+    {
+        return ModelViewRegistry.getConfiguration(BenchmarkActivity.class);
+    }
+
+    @Benchmark
+    public ModelViewConfiguration readAnnotation()
+    {
+        return BenchmarkActivity.class.getAnnotation(ModelViewConfiguration.class);
+    }
+}
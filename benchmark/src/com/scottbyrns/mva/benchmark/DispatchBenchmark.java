@@ -0,0 +1,110 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottbyrns.mva.ModelViewActivity;
+import com.scottbyrns.mva.data.DataSourceFactory;
+import com.scottbyrns.mva.reflection.DataEventCallback;
+import com.scottbyrns.mva.reflection.DataEventCallbacks;
+import com.scottbyrns.mva.reflection.DataEvents;
+import com.scottbyrns.mva.view.ViewFactory;
+
+/**
+ * The cost of fanning a data event out through the activity's handler to its abstract callback and the methods
+ * annotated for it.
+ * <p/>
+ * The stubbed handler delivers on the sending thread so this measures building and dispatching the message, not the
+ * wait for the UI thread. The scan benchmark finds the annotated methods by reflection on every event, as a baseline
+ * for the resolved callbacks.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:20 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DispatchBenchmark
+{
+    private BenchmarkActivity activity;
+
+    @Setup
+    public void setUp() throws InterruptedException
+    {
+        DataSourceFactory.registerDataSource(BenchmarkActivity.NAME, BenchmarkDataSource.class);
+        ViewFactory.registerViewLayer(BenchmarkActivity.NAME, BenchmarkViewLayer.class);
+
+        // The handler holds events until the view has loaded, so the activity is created as Android would.
+        activity = new BenchmarkActivity();
+        activity.create();
+        activity.getLoads().acquire();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        activity.destroy();
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain()
+    {
+        activity.getLoads().drainPermits();
+    }
+
+    @Benchmark
+    public void sendMessage()
+    {
+        activity.handler.sendEmptyMessage(ModelViewActivity.DID_LOAD);
+    }
+
+    @Benchmark
+    public void postEvent()
+    {
+        activity.postEvent(DataEvents.DATA_DID_UPDATE);
+    }
+
+    @Benchmark
+    public void invokeAnnotatedCallbacks()
+    {
+        DataEventCallbacks.invoke(activity, DataEvents.DATA_DID_UPDATE);
+    }
+
+    @Benchmark
+    public void scanAnnotatedCallbacks() throws Exception
+    {
+        for (Method method : activity.getClass().getMethods()) {
+            DataEventCallback callback = method.getAnnotation(DataEventCallback.class);
+            if (callback != null && callback.eventName() == DataEvents.DATA_DID_UPDATE) {
+                method.invoke(activity);
+            }
+        }
+    }
+}
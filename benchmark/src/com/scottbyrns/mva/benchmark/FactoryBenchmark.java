@@ -0,0 +1,117 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import android.app.Activity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottbyrns.mva.data.DataSource;
+import com.scottbyrns.mva.data.DataSourceFactory;
+import com.scottbyrns.mva.data.DataSourceProducer;
+import com.scottbyrns.mva.view.ViewFactory;
+import com.scottbyrns.mva.view.ViewLayer;
+import com.scottbyrns.mva.view.ViewLayerProducer;
+
+/**
+ * The cost of producing data sources and view layers by name.
+ * <p/>
+ * Classes registered by name are produced through a constructor resolved at registration, producers registered by name
+ * are called directly. The reflect benchmarks look the constructor up on every call as the factories did before
+ * constructors were resolved at registration, as a baseline.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:10 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FactoryBenchmark
+{
+    private static final String PRODUCED = "benchmark.produced";
+
+    private Activity activity;
+
+    @Setup
+    public void setUp()
+    {
+        activity = new BenchmarkActivity();
+
+        DataSourceFactory.registerDataSource(BenchmarkActivity.NAME, BenchmarkDataSource.class);
+        DataSourceFactory.registerDataSource(PRODUCED, new DataSourceProducer()
+        {
+            public DataSource produce(Activity context)
+            {
+                return new BenchmarkDataSource(context);
+            }
+        });
+
+        ViewFactory.registerViewLayer(BenchmarkActivity.NAME, BenchmarkViewLayer.class);
+        ViewFactory.registerViewLayer(PRODUCED, new ViewLayerProducer()
+        {
+            public ViewLayer produce()
+            {
+                return new BenchmarkViewLayer();
+            }
+        });
+    }
+
+    @Benchmark
+    public DataSource produceRegisteredDataSource()
+    {
+        return DataSourceFactory.produce(BenchmarkActivity.NAME, activity);
+    }
+
+    @Benchmark
+    public DataSource produceDataSourceFromProducer()
+    {
+        return DataSourceFactory.produce(PRODUCED, activity);
+    }
+
+    @Benchmark
+    public DataSource reflectDataSource() throws Exception
+    {
+        return BenchmarkDataSource.class.getConstructor(new Class[] {Activity.class}).newInstance(activity);
+    }
+
+    @Benchmark
+    public ViewLayer produceRegisteredViewLayer()
+    {
+        return ViewFactory.produce(BenchmarkActivity.NAME);
+    }
+
+    @Benchmark
+    public ViewLayer produceViewLayerFromProducer()
+    {
+        return ViewFactory.produce(PRODUCED);
+    }
+
+    @Benchmark
+    public ViewLayer reflectViewLayer() throws Exception
+    {
+        return BenchmarkViewLayer.class.getConstructor(new Class[0]).newInstance();
+    }
+}
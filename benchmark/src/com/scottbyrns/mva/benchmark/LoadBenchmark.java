@@ -0,0 +1,144 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottbyrns.mva.data.BaseDataSource;
+import com.scottbyrns.mva.data.DataSourceFactory;
+import com.scottbyrns.mva.metrics.Metrics;
+import com.scottbyrns.mva.reflection.DataEvents;
+import com.scottbyrns.mva.view.ViewFactory;
+
+/**
+ * The round trip of a load from the calling thread to a worker and back to the activity's callback.
+ * <p/>
+ * The thread per load benchmark starts a thread for every delivery as data sources did before they shared a pool, as a
+ * baseline. The callback benchmark delivers a loaded event without a load to separate the cost of delivery. Each runs
+ * with metrics off and on.
+ * <p/>
+ * Besides the time per load, the number of loads and the number of threads the JVM started while they ran are reported
+ * as secondary results, summed over the measured iterations.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:15 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoadBenchmark
+{
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private BenchmarkActivity activity;
+    private BaseDataSource dataSource;
+
+    @Setup
+    public void setUp() throws InterruptedException
+    {
+        Metrics.setEnabled(metrics);
+        DataSourceFactory.registerDataSource(BenchmarkActivity.NAME, BenchmarkDataSource.class);
+        ViewFactory.registerViewLayer(BenchmarkActivity.NAME, BenchmarkViewLayer.class);
+
+        activity = new BenchmarkActivity();
+        activity.create();
+        activity.getLoads().acquire();
+        dataSource = (BaseDataSource) activity.getDataSource();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        activity.destroy();
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Benchmark
+    public void load(ThreadCounters counters) throws InterruptedException
+    {
+        dataSource.load();
+        activity.getLoads().acquire();
+        counters.loads++;
+    }
+
+    @Benchmark
+    public void threadPerLoad(ThreadCounters counters) throws InterruptedException
+    {
+        new Thread(new Runnable()
+        {
+            public void run()
+            {
+                activity.postEvent(DataEvents.DATA_DID_LOAD);
+            }
+        }).start();
+        activity.getLoads().acquire();
+        counters.loads++;
+    }
+
+    @Benchmark
+    public void deliverCallback() throws InterruptedException
+    {
+        dataSource.getDataLoadSuccessCallback().execute();
+        activity.getLoads().acquire();
+    }
+
+    /**
+     * Counts the threads started during an iteration, read from the JVM's thread bean.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ThreadCounters
+    {
+        private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        public long loads;
+        public long threadsStarted;
+
+        private long startedBefore;
+
+        @Setup(Level.Iteration)
+        public void begin()
+        {
+            loads = 0;
+            threadsStarted = 0;
+            startedBefore = threads.getTotalStartedThreadCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void end()
+        {
+            threadsStarted = threads.getTotalStartedThreadCount() - startedBefore;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scottbyrns.mva.data.SnapshotStore;
+
+/**
+ * The cost of writing and reading entity snapshots of a range of sizes, and of writing past the size bound of the store
+ * so every write evicts.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 4:45 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark
+{
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    private File directory;
+    private SnapshotStore store;
+    private SnapshotStore bounded;
+    private byte[] bytes;
+    private int key;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        directory = File.createTempFile("snapshots", "");
+        directory.delete();
+        store = SnapshotStore.open(new File(directory, "store"));
+        bounded = SnapshotStore.open(new File(directory, "bounded"));
+        bounded.setMaxBytes(size * 4L);
+
+        bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        store.write("read", 1, bytes);
+        SnapshotStore.Snapshot snapshot = store.read("read");
+        if (snapshot == null || !Arrays.equals(bytes, snapshot.getBytes())) {
+            throw new IllegalStateException("The snapshot does not read back as written, see SnapshotChecks.");
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        store.clear();
+        bounded.clear();
+        new File(directory, "store").delete();
+        new File(directory, "bounded").delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public void write() throws IOException
+    {
+        store.write("write", 1, bytes);
+    }
+
+    @Benchmark
+    public SnapshotStore.Snapshot read() throws IOException
+    {
+        return store.read("read");
+    }
+
+    @Benchmark
+    public void writeEvicting() throws IOException
+    {
+        bounded.write(String.valueOf(key++), 1, bytes);
+    }
+}
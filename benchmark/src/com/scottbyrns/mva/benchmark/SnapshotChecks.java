@@ -0,0 +1,381 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.scottbyrns.mva.data.BaseDataSource;
+import com.scottbyrns.mva.data.DataCallback;
+import com.scottbyrns.mva.data.EntityCodec;
+import com.scottbyrns.mva.data.SnapshotStore;
+import com.scottbyrns.mva.data.VersionedEntityCodec;
+
+/**
+ * Checks that the snapshot store measured by {@link SnapshotBenchmark} is correct, so its numbers are worth reading.
+ * <p/>
+ * Covers the round trip of a snapshot, damaged and truncated files, snapshots written by another version of the entity
+ * codec and eviction past the size bound. Run with {@code ant check}, a failed check ends the run with an error.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 5:50 PM
+ */
+public class SnapshotChecks
+{
+    // magic, format, schema version, written at, length, checksum
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 4 + 8;
+
+    private final File directory;
+    private int stores;
+
+    public static void main(String[] args) throws Exception
+    {
+        File directory = File.createTempFile("snapshot-checks", "");
+        directory.delete();
+        SnapshotChecks checks = new SnapshotChecks(directory);
+        try {
+            checks.roundTrip();
+            checks.damagedPayload();
+            checks.damagedChecksum();
+            checks.truncated();
+            checks.migration();
+            checks.unversionedMismatch();
+            checks.eviction();
+        }
+        finally {
+            delete(directory);
+        }
+        System.out.println("All snapshot checks passed.");
+    }
+
+    private SnapshotChecks(File directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * A snapshot reads back as written, for sizes from empty to larger than a page.
+     */
+    void roundTrip() throws IOException
+    {
+        SnapshotStore store = newStore();
+        for (int size : new int[] {0, 1, 1024, 65536, 1048576}) {
+            byte[] bytes = randomBytes(size);
+            long before = System.currentTimeMillis();
+            store.write("round trip", 3, bytes);
+            SnapshotStore.Snapshot snapshot = store.read("round trip");
+
+            check(snapshot != null, "a " + size + " byte snapshot reads back");
+            check(Arrays.equals(bytes, snapshot.getBytes()), "a " + size + " byte snapshot keeps its bytes");
+            check(snapshot.getVersion() == 3, "a " + size + " byte snapshot keeps its version");
+            check(snapshot.getWrittenAt() >= before && snapshot.getWrittenAt() <= System.currentTimeMillis(),
+                  "a " + size + " byte snapshot records when it was written");
+        }
+        check(store.read("missing") == null, "a key never written has no snapshot");
+        passed("round trip");
+    }
+
+    /**
+     * A flipped bit in the entity fails the checksum, the snapshot is dropped.
+     */
+    void damagedPayload() throws IOException
+    {
+        SnapshotStore store = newStore();
+        store.write("damaged", 1, randomBytes(4096));
+        File file = onlySnapshot(store);
+        flipBit(file, HEADER_BYTES + 2048);
+
+        check(store.read("damaged") == null, "a snapshot with a damaged entity is not read");
+        check(!file.exists(), "a snapshot with a damaged entity is deleted");
+        passed("damaged payload");
+    }
+
+    /**
+     * A flipped bit in the stored checksum no longer matches the entity, the snapshot is dropped.
+     */
+    void damagedChecksum() throws IOException
+    {
+        SnapshotStore store = newStore();
+        store.write("damaged", 1, randomBytes(4096));
+        File file = onlySnapshot(store);
+        flipBit(file, HEADER_BYTES - 1);
+
+        check(store.read("damaged") == null, "a snapshot with a damaged checksum is not read");
+        check(!file.exists(), "a snapshot with a damaged checksum is deleted");
+        passed("damaged checksum");
+    }
+
+    /**
+     * A file cut short, inside the entity or inside the header, is dropped.
+     */
+    void truncated() throws IOException
+    {
+        SnapshotStore store = newStore();
+        for (long length : new long[] {HEADER_BYTES + 4095, HEADER_BYTES, HEADER_BYTES - 1, 0}) {
+            store.write("truncated", 1, randomBytes(4096));
+            File file = onlySnapshot(store);
+            truncate(file, length);
+
+            check(store.read("truncated") == null, "a snapshot cut to " + length + " bytes is not read");
+            check(!file.exists(), "a snapshot cut to " + length + " bytes is deleted");
+        }
+        passed("truncated");
+    }
+
+    /**
+     * A snapshot written by an older version of a versioned codec is migrated when the data source loads.
+     */
+    void migration() throws Exception
+    {
+        SnapshotStore store = newStore();
+        SnapshotSource dataSource = new SnapshotSource(new Version2Codec(), store);
+        store.write("snapshots", 1, "migrated".getBytes("UTF-8"));
+
+        check("v1:migrated".equals(dataSource.decodeEntity("migrated".getBytes("UTF-8"), 1)),
+              "an entity of version 1 is migrated by the codec");
+        check("loaded".equals(dataSource.loadDeliveringSnapshot()), "a migrated snapshot is delivered before the load");
+        check("v1:migrated".equals(dataSource.delivered), "the delivered snapshot is the migrated entity");
+
+        SnapshotStore.Snapshot stored = store.read("snapshots");
+        check(stored != null && stored.getVersion() == 2, "the load stores a snapshot of the current version");
+        passed("migration");
+    }
+
+    /**
+     * A snapshot written by another version of a codec without versions cannot be read and is dropped.
+     */
+    void unversionedMismatch() throws Exception
+    {
+        SnapshotStore store = newStore();
+        SnapshotSource dataSource = new SnapshotSource(new StringCodec(), store);
+        store.write("snapshots", 1, "stale".getBytes("UTF-8"));
+
+        check(dataSource.decodeEntity("stale".getBytes("UTF-8"), 1) == null,
+              "an entity of another version is not decoded without a versioned codec");
+        check("loaded".equals(dataSource.loadDeliveringSnapshot()), "the load succeeds without the snapshot");
+        check(dataSource.delivered == null, "no snapshot is delivered before the load");
+
+        SnapshotStore.Snapshot stored = store.read("snapshots");
+        check(stored != null && stored.getVersion() == 0, "the unreadable snapshot is replaced by the load");
+        passed("unversioned mismatch");
+    }
+
+    /**
+     * Writes past the size bound evict the least recently used snapshots, never the one just written.
+     */
+    void eviction() throws Exception
+    {
+        SnapshotStore store = newStore();
+        byte[] bytes = randomBytes(1024);
+        store.write("size", 1, bytes);
+        long snapshotBytes = store.getSize();
+        store.remove("size");
+        store.setMaxBytes(snapshotBytes * 3);
+
+        writeInTurn(store, bytes, "a", "b", "c", "d");
+        check(store.getSize() <= store.getMaxBytes(), "the store is within its bound after a write past it");
+        check(store.read("a") == null, "the oldest snapshot is evicted first");
+
+        // Reading b makes c the least recently used.
+        check(store.read("b") != null, "a younger snapshot survives eviction");
+        pause();
+        writeInTurn(store, bytes, "e");
+        check(store.read("c") == null, "the least recently read snapshot is evicted");
+        check(store.read("b") != null, "a snapshot read since it was written is kept");
+        check(store.read("e") != null, "the snapshot just written is kept");
+
+        store.setMaxBytes(snapshotBytes / 2);
+        check(store.getSize() == 0, "lowering the bound evicts snapshots");
+        store.write("large", 1, bytes);
+        check(store.read("large") != null, "a snapshot larger than the bound is still kept until the next write");
+        passed("eviction");
+    }
+
+    private SnapshotStore newStore()
+    {
+        SnapshotStore store = SnapshotStore.open(new File(directory, "store" + stores++));
+        store.setMaxBytes(SnapshotStore.DEFAULT_MAX_BYTES);
+        return store;
+    }
+
+    private static void writeInTurn(SnapshotStore store, byte[] bytes, String... keys) throws Exception
+    {
+        for (String key : keys) {
+            store.write(key, 1, bytes);
+            pause();
+        }
+    }
+
+    /**
+     * Eviction orders snapshots by modification time, which some file systems keep to the second.
+     */
+    private static void pause() throws InterruptedException
+    {
+        Thread.sleep(1100);
+    }
+
+    private static File onlySnapshot(SnapshotStore store)
+    {
+        File[] files = store.getDirectory().listFiles();
+        check(files != null && files.length == 1, "the store holds one snapshot file");
+        return files[0];
+    }
+
+    private static void flipBit(File file, long position) throws IOException
+    {
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.seek(position);
+            int value = output.read();
+            output.seek(position);
+            output.write(value ^ 1);
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    private static void truncate(File file, long length) throws IOException
+    {
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.setLength(length);
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    private static byte[] randomBytes(int size)
+    {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void check(boolean condition, String expectation)
+    {
+        if (!condition) {
+            throw new AssertionError("Expected " + expectation + ".");
+        }
+    }
+
+    private static void passed(String check)
+    {
+        System.out.println("ok " + check);
+    }
+
+    /**
+     * A snapshotting data source whose load waits until the snapshot has been delivered.
+     */
+    private static class SnapshotSource extends BaseDataSource<String>
+    {
+        private final CountDownLatch snapshotDelivered = new CountDownLatch(1);
+        private volatile String delivered;
+
+        SnapshotSource(EntityCodec<String> codec, SnapshotStore store)
+        {
+            super(null);
+            setName("snapshots");
+            setEntityCodec(codec);
+            setSnapshotStore(store);
+            setSnapshotting(true);
+        }
+
+        /**
+         * Load, recording the entity delivered ahead of the load if there is one.
+         *
+         * @return The entity once the load has finished.
+         */
+        String loadDeliveringSnapshot() throws InterruptedException
+        {
+            final CountDownLatch loaded = new CountDownLatch(1);
+            // A load that delivered a snapshot reports the loaded entity as an update.
+            DataCallback callback = new DataCallback()
+            {
+                public void execute()
+                {
+                    if ("loaded".equals(getEntity())) {
+                        loaded.countDown();
+                    }
+                    else {
+                        delivered = getEntity();
+                        snapshotDelivered.countDown();
+                    }
+                }
+            };
+            setDataLoadSuccessCallback(callback);
+            setDataUpdateCallback(callback);
+            load();
+            check(loaded.await(5, TimeUnit.SECONDS), "the load finishes");
+            return getEntity();
+        }
+
+        @Override
+        protected void loadEntity() throws Throwable
+        {
+            // Without a snapshot nothing is delivered ahead of the load.
+            snapshotDelivered.await(100, TimeUnit.MILLISECONDS);
+            setEntity("loaded");
+        }
+
+        @Override
+        protected void saveEntity() throws Throwable
+        {
+        }
+    }
+
+    private static class StringCodec implements EntityCodec<String>
+    {
+        public byte[] encode(String entity) throws IOException
+        {
+            return entity.getBytes("UTF-8");
+        }
+
+        public String decode(byte[] bytes) throws IOException
+        {
+            return new String(bytes, "UTF-8");
+        }
+    }
+
+    private static class Version2Codec extends StringCodec implements VersionedEntityCodec<String>
+    {
+        public int getVersion()
+        {
+            return 2;
+        }
+
+        public String decode(byte[] bytes, int version) throws IOException
+        {
+            if (version != 1) {
+                throw new IOException("Cannot migrate version " + version + ".");
+            }
+            return "v1:" + decode(bytes);
+        }
+    }
+}
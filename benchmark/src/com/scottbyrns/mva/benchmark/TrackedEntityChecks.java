@@ -0,0 +1,196 @@
+package com.scottbyrns.mva.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.scottbyrns.mva.data.BaseDataSource;
+import com.scottbyrns.mva.data.ChangeSet;
+import com.scottbyrns.mva.data.DataCallback;
+import com.scottbyrns.mva.data.EntityCache;
+import com.scottbyrns.mva.data.LoadMode;
+import com.scottbyrns.mva.data.TrackedEntity;
+
+/**
+ * Checks that a reload never loses the unsaved changes of a {@link TrackedEntity}.
+ * <p/>
+ * Each check edits the entity, loads it again and saves it, and expects the save to reach the data source. Run with
+ * {@code ant check}, a failed check ends the run with an error.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 7:20 PM
+ */
+public class TrackedEntityChecks
+{
+    public static void main(String[] args) throws Exception
+    {
+        reloadFromCache();
+        reloadStaleWhileRevalidate();
+        System.out.println("All tracked entity checks passed.");
+    }
+
+    /**
+     * A load served from the cache within its time to live keeps the edit.
+     */
+    static void reloadFromCache() throws Exception
+    {
+        EntityCache.clear();
+        NoteSource dataSource = new NoteSource(LoadMode.BLOCKING);
+        dataSource.loadAndWait();
+        Note note = dataSource.getEntity();
+        note.setTitle("edited");
+
+        dataSource.loadAndWait();
+        check(dataSource.loads == 1, "the second load is served from the cache");
+        editSurvives(dataSource, note);
+        passed("reload from cache");
+    }
+
+    /**
+     * A stale while revalidate load keeps the edit, both while the stale entity is shown and once the load commits.
+     */
+    static void reloadStaleWhileRevalidate() throws Exception
+    {
+        EntityCache.clear();
+        NoteSource dataSource = new NoteSource(LoadMode.STALE_WHILE_REVALIDATE);
+        dataSource.loadAndWait();
+        Note note = dataSource.getEntity();
+        note.setTitle("edited");
+
+        // Past its time to live the entity of the data source is shown while it is revalidated.
+        EntityCache.clear();
+        dataSource.loadAndWait();
+        check(dataSource.loads == 2, "the second load revalidates the entity");
+        editSurvives(dataSource, note);
+        passed("reload stale while revalidate");
+    }
+
+    private static void editSurvives(NoteSource dataSource, Note note) throws InterruptedException
+    {
+        check(dataSource.getEntity() == note, "the edited entity is kept");
+        check(note.getChanges().isChanged("title"), "the edit is still a change to save");
+
+        dataSource.saveAndWait();
+        check(dataSource.saved != null, "the save reaches the data source");
+        check(dataSource.saved.isChanged("title"), "the save is given the edit");
+        check("edited".equals(note.getTitle()), "the edit is not overwritten");
+    }
+
+    private static void check(boolean condition, String expectation)
+    {
+        if (!condition) {
+            throw new AssertionError("Expected " + expectation + ".");
+        }
+    }
+
+    private static void passed(String check)
+    {
+        System.out.println("ok " + check);
+    }
+
+    private static class Note implements TrackedEntity
+    {
+        private final ChangeSet changes = new ChangeSet();
+        private String title;
+
+        Note(String title)
+        {
+            this.title = title;
+        }
+
+        String getTitle()
+        {
+            return title;
+        }
+
+        void setTitle(String title)
+        {
+            this.title = title;
+            changes.markField("title");
+        }
+
+        public ChangeSet getChanges()
+        {
+            return changes;
+        }
+    }
+
+    /**
+     * A cached data source of a note, counting its loads and recording the changes it was asked to save.
+     */
+    private static class NoteSource extends BaseDataSource<Note>
+    {
+        private volatile int loads;
+        private volatile ChangeSet saved;
+
+        NoteSource(LoadMode loadMode)
+        {
+            super(null);
+            setName("notes");
+            setLoadMode(loadMode);
+        }
+
+        @Override
+        protected Object getCacheKey()
+        {
+            return "note";
+        }
+
+        void loadAndWait() throws InterruptedException
+        {
+            final CountDownLatch loaded = new CountDownLatch(1);
+            setDataLoadSuccessCallback(new DataCallback()
+            {
+                public void execute()
+                {
+                    loaded.countDown();
+                }
+            });
+            load();
+            check(loaded.await(5, TimeUnit.SECONDS), "the load finishes");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (isLoading()) {
+                check(System.currentTimeMillis() < deadline, "the revalidation finishes");
+                Thread.sleep(10);
+            }
+        }
+
+        void saveAndWait() throws InterruptedException
+        {
+            final CountDownLatch done = new CountDownLatch(1);
+            setDataSaveSuccessCallback(new DataCallback()
+            {
+                public void execute()
+                {
+                    done.countDown();
+                }
+            });
+            save();
+            check(done.await(5, TimeUnit.SECONDS), "the save finishes");
+        }
+
+        @Override
+        protected void loadEntity() throws Throwable
+        {
+            loads++;
+            setEntity(new Note("stored"));
+        }
+
+        @Override
+        protected void saveEntity() throws Throwable
+        {
+            ChangeSet changes = getChanges();
+            saved = changes != null ? changes : new ChangeSet();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A plain JVM stand in for the Android class of the same name, used only to run benchmarks.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:00 PM
+ */
+public class Activity extends Context
+{
+    private boolean finishing;
+    private Intent intent = new Intent();
+
+    protected void onCreate(Bundle savedInstanceState)
+    {
+    }
+
+    protected void onPause()
+    {
+    }
+
+    protected void onSaveInstanceState(Bundle outState)
+    {
+    }
+
+    public Object onRetainNonConfigurationInstance()
+    {
+        return null;
+    }
+
+    public Object getLastNonConfigurationInstance()
+    {
+        return null;
+    }
+
+    public boolean isChangingConfigurations()
+    {
+        return false;
+    }
+
+    protected void onDestroy()
+    {
+    }
+
+    private View contentView;
+    private ViewGroup content;
+
+    public void setContentView(int layoutResID)
+    {
+        setContentView(LayoutInflater.from(this).inflate(layoutResID, null, false));
+    }
+
+    public void setContentView(View view)
+    {
+        contentView = view;
+    }
+
+    public void runOnUiThread(Runnable action)
+    {
+        action.run();
+    }
+
+    public View findViewById(int id)
+    {
+        if (id == android.R.id.content) {
+            if (content == null) {
+                content = new ViewGroup(this);
+            }
+            return content;
+        }
+        return null;
+    }
+
+    public Intent getIntent()
+    {
+        return intent;
+    }
+
+    public void setIntent(Intent intent)
+    {
+        this.intent = intent;
+    }
+
+    public boolean isFinishing()
+    {
+        return finishing;
+    }
+
+    public void finish()
+    {
+        finishing = true;
+    }
+}
@@ -0,0 +1,56 @@
+package android.app;
+
+import android.content.Context;
+
+/**
+ * A plain JVM stand in for the Android class of the same name, used only to run benchmarks.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:00 PM
+ */
+public class Dialog
+{
+    private final Context context;
+    private boolean showing;
+
+    public Dialog(Context context)
+    {
+        this.context = context;
+    }
+
+    public Context getContext()
+    {
+        return context;
+    }
+
+    public void show()
+    {
+        showing = true;
+    }
+
+    public void hide()
+    {
+        showing = false;
+    }
+
+    public void dismiss()
+    {
+        showing = false;
+    }
+
+    public boolean isShowing()
+    {
+        return showing;
+    }
+}
@@ -0,0 +1,73 @@
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A plain JVM stand in for the Android class of the same name, used only to run benchmarks.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:00 PM
+ */
+public class Bundle
+{
+    private final Map<String, Object> values = new HashMap<String, Object>();
+
+    public boolean containsKey(String key)
+    {
+        return values.containsKey(key);
+    }
+
+    public boolean getBoolean(String key)
+    {
+        Boolean value = (Boolean) values.get(key);
+        return value != null && value;
+    }
+
+    public void putBoolean(String key, boolean value)
+    {
+        values.put(key, value);
+    }
+
+    public int getInt(String key)
+    {
+        Integer value = (Integer) values.get(key);
+        return value == null ? 0 : value;
+    }
+
+    public void putInt(String key, int value)
+    {
+        values.put(key, value);
+    }
+
+    public byte[] getByteArray(String key)
+    {
+        return (byte[]) values.get(key);
+    }
+
+    public void putByteArray(String key, byte[] value)
+    {
+        values.put(key, value);
+    }
+
+    public String getString(String key)
+    {
+        return (String) values.get(key);
+    }
+
+    public void putString(String key, String value)
+    {
+        values.put(key, value);
+    }
+}
@@ -0,0 +1,127 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A plain JVM stand in for the Android class of the same name, used only to run benchmarks.
+ * <p/>
+ * There is no looper on the plain JVM so messages are handled synchronously on the sending thread. Benchmarks through
+ * this handler measure the cost of building and dispatching messages, not the wait for the UI thread. Delayed runnables
+ * run on a shared timer thread.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:00 PM
+ */
+public class Handler
+{
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+    {
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "Handler timer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Map<Runnable, List<ScheduledFuture<?>>> delayed = new HashMap<Runnable, List<ScheduledFuture<?>>>();
+
+    public void handleMessage(Message msg)
+    {
+    }
+
+    public void dispatchMessage(Message msg)
+    {
+        handleMessage(msg);
+    }
+
+    public final Message obtainMessage(int what)
+    {
+        Message message = Message.obtain();
+        message.target = this;
+        message.what = what;
+        return message;
+    }
+
+    public final Message obtainMessage(int what, Object obj)
+    {
+        Message message = obtainMessage(what);
+        message.obj = obj;
+        return message;
+    }
+
+    public final boolean sendEmptyMessage(int what)
+    {
+        return sendMessage(obtainMessage(what));
+    }
+
+    public final boolean sendMessage(Message msg)
+    {
+        msg.target = this;
+        msg.when = SystemClock.uptimeMillis();
+        dispatchMessage(msg);
+        return true;
+    }
+
+    public final boolean post(Runnable runnable)
+    {
+        runnable.run();
+        return true;
+    }
+
+    public final boolean postDelayed(final Runnable runnable, long delayMillis)
+    {
+        synchronized (delayed) {
+            List<ScheduledFuture<?>> futures = delayed.get(runnable);
+            if (futures == null) {
+                futures = new ArrayList<ScheduledFuture<?>>();
+                delayed.put(runnable, futures);
+            }
+            futures.add(timer.schedule(runnable, Math.max(0, delayMillis), TimeUnit.MILLISECONDS));
+        }
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable)
+    {
+        List<ScheduledFuture<?>> futures;
+        synchronized (delayed) {
+            futures = delayed.remove(runnable);
+        }
+        if (futures != null) {
+            for (ScheduledFuture<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    public final void removeCallbacksAndMessages(Object token)
+    {
+        List<Runnable> runnables;
+        synchronized (delayed) {
+            runnables = new ArrayList<Runnable>(delayed.keySet());
+        }
+        for (Runnable runnable : runnables) {
+            removeCallbacks(runnable);
+        }
+    }
+}
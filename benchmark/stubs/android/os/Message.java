@@ -0,0 +1,79 @@
+package android.os;
+
+/**
+ * A plain JVM stand in for the Android class of the same name, used only to run benchmarks.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:00 PM
+ */
+public class Message
+{
+    public int what;
+    public int arg1;
+    public int arg2;
+    public Object obj;
+
+    Handler target;
+    long when;
+    private Bundle data;
+
+    public static Message obtain()
+    {
+        return new Message();
+    }
+
+    public static Message obtain(Message orig)
+    {
+        Message message = obtain();
+        message.what = orig.what;
+        message.arg1 = orig.arg1;
+        message.arg2 = orig.arg2;
+        message.obj = orig.obj;
+        message.target = orig.target;
+        message.data = orig.data;
+        return message;
+    }
+
+    public void recycle()
+    {
+    }
+
+    public Bundle getData()
+    {
+        if (data == null) {
+            data = new Bundle();
+        }
+        return data;
+    }
+
+    public void setData(Bundle data)
+    {
+        this.data = data;
+    }
+
+    public long getWhen()
+    {
+        return when;
+    }
+
+    public Handler getTarget()
+    {
+        return target;
+    }
+
+    public void sendToTarget()
+    {
+        target.sendMessage(this);
+    }
+}
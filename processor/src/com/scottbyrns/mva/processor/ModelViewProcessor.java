@@ -0,0 +1,279 @@
+package com.scottbyrns.mva.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a registry wiring {@link com.scottbyrns.mva.ModelViewActivity}'s to their data sources and view layers at
+ * compile time.
+ * <p/>
+ * Data sources annotated with {@code @RegisterDataSource} and view layers annotated with {@code @RegisterViewLayer}
+ * are registered with their factories through direct constructor calls, and every activity annotated with
+ * {@code @ModelViewConfiguration} is registered with the {@code ModelViewRegistry}. Annotated classes are collected over
+ * every round and the registry is written once the last round is over, so classes generated by other processors are
+ * included. A configuration naming a data source or view layer that is not registered is warned of, as it may be
+ * registered at runtime instead.
+ * <p/>
+ * The generated class is {@code com.scottbyrns.mva.generated.GeneratedModelViews} unless the {@code mva.registry}
+ * option names another. Call its {@code install()} method once, before the first activity is created.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 11:45 AM
+ */
+public class ModelViewProcessor extends AbstractProcessor
+{
+    private static final String REGISTER_DATA_SOURCE = "com.scottbyrns.mva.reflection.RegisterDataSource";
+    private static final String REGISTER_VIEW_LAYER = "com.scottbyrns.mva.reflection.RegisterViewLayer";
+    private static final String MODEL_VIEW_CONFIGURATION = "com.scottbyrns.mva.reflection.ModelViewConfiguration";
+    private static final String ACTIVITY = "android.app.Activity";
+
+    private static final String REGISTRY_OPTION = "mva.registry";
+    private static final String DEFAULT_REGISTRY = "com.scottbyrns.mva.generated.GeneratedModelViews";
+
+    private final Map<String, TypeElement> dataSources = new LinkedHashMap<String, TypeElement>();
+    private final Map<String, TypeElement> viewLayers = new LinkedHashMap<String, TypeElement>();
+    private final Map<TypeElement, String[]> activities = new LinkedHashMap<TypeElement, String[]>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes()
+    {
+        return new HashSet<String>(Arrays.asList(REGISTER_DATA_SOURCE, REGISTER_VIEW_LAYER, MODEL_VIEW_CONFIGURATION));
+    }
+
+    @Override
+    public Set<String> getSupportedOptions()
+    {
+        return new HashSet<String>(Arrays.asList(REGISTRY_OPTION));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment)
+    {
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (Element element : roundEnvironment.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                if (REGISTER_DATA_SOURCE.equals(annotationName)) {
+                    collect(dataSources, type, stringValue(type, annotationName, "value"));
+                }
+                else if (REGISTER_VIEW_LAYER.equals(annotationName)) {
+                    collect(viewLayers, type, stringValue(type, annotationName, "value"));
+                }
+                else if (MODEL_VIEW_CONFIGURATION.equals(annotationName)) {
+                    activities.put(type, new String[] {stringValue(type, annotationName, "dataSource"),
+                                                       stringValue(type, annotationName, "view")});
+                }
+            }
+        }
+
+        if (roundEnvironment.processingOver() && !(dataSources.isEmpty() && viewLayers.isEmpty() && activities.isEmpty())) {
+            if (validate()) {
+                generate();
+            }
+        }
+        return false;
+    }
+
+    private void collect(Map<String, TypeElement> registered, TypeElement type, String name)
+    {
+        TypeElement previous = registered.put(name, type);
+        if (previous != null) {
+            error(type, "\"" + name + "\" is already registered by " + previous.getQualifiedName() + ".");
+        }
+    }
+
+    private boolean validate()
+    {
+        boolean valid = true;
+        for (Map.Entry<String, TypeElement> entry : dataSources.entrySet()) {
+            if (!hasPublicConstructor(entry.getValue(), ACTIVITY)) {
+                error(entry.getValue(), "A registered data source needs a public constructor taking an " + ACTIVITY + ".");
+                valid = false;
+            }
+        }
+        for (Map.Entry<String, TypeElement> entry : viewLayers.entrySet()) {
+            if (!hasPublicConstructor(entry.getValue())) {
+                error(entry.getValue(), "A registered view layer needs a public no argument constructor.");
+                valid = false;
+            }
+        }
+        for (Map.Entry<TypeElement, String[]> entry : activities.entrySet()) {
+            String dataSource = entry.getValue()[0];
+            String view = entry.getValue()[1];
+            if (!dataSources.containsKey(dataSource)) {
+                warning(entry.getKey(), "No data source is registered as \"" + dataSource + "\" at compile time.");
+            }
+            if (!viewLayers.containsKey(view)) {
+                warning(entry.getKey(), "No view layer is registered as \"" + view + "\" at compile time.");
+            }
+        }
+        return valid;
+    }
+
+    private boolean hasPublicConstructor(TypeElement type, String... parameterTypes)
+    {
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (parameters.size() != parameterTypes.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (!parameters.get(i).asType().toString().equals(parameterTypes[i])) {
+                    matches = false;
+                }
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void generate()
+    {
+        String registry = processingEnv.getOptions().get(REGISTRY_OPTION);
+        if (registry == null) {
+            registry = DEFAULT_REGISTRY;
+        }
+        int dot = registry.lastIndexOf('.');
+        String packageName = dot < 0 ? null : registry.substring(0, dot);
+        String className = registry.substring(dot + 1);
+
+        List<Element> origins = new ArrayList<Element>();
+        origins.addAll(dataSources.values());
+        origins.addAll(viewLayers.values());
+        origins.addAll(activities.keySet());
+
+        try {
+            Writer writer = processingEnv.getFiler()
+                                         .createSourceFile(registry, origins.toArray(new Element[origins.size()]))
+                                         .openWriter();
+            try {
+                if (packageName != null) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n * Generated by " + getClass().getName() + ". Do not edit.\n */\n");
+                writer.write("public final class " + className + "\n{\n");
+                writer.write("    private static boolean installed;\n\n");
+                writer.write("    private " + className + "()\n    {\n    }\n\n");
+                writer.write("    /**\n     * Register the data sources, view layers and activities of this application.\n     */\n");
+                writer.write("    public static synchronized void install()\n    {\n");
+                writer.write("        if (installed) {\n            return;\n        }\n");
+                writer.write("        installed = true;\n");
+                for (Map.Entry<String, TypeElement> entry : dataSources.entrySet()) {
+                    writer.write("        com.scottbyrns.mva.data.DataSourceFactory.registerDataSource(" + literal(entry.getKey()) + ",\n");
+                    writer.write("            new com.scottbyrns.mva.data.DataSourceProducer()\n            {\n");
+                    writer.write("                public com.scottbyrns.mva.data.DataSource produce(" + ACTIVITY + " context)\n                {\n");
+                    writer.write("                    return new " + entry.getValue().getQualifiedName() + "(context);\n");
+                    writer.write("                }\n            });\n");
+                }
+                for (Map.Entry<String, TypeElement> entry : viewLayers.entrySet()) {
+                    writer.write("        com.scottbyrns.mva.view.ViewFactory.registerViewLayer(" + literal(entry.getKey()) + ",\n");
+                    writer.write("            new com.scottbyrns.mva.view.ViewLayerProducer()\n            {\n");
+                    writer.write("                public com.scottbyrns.mva.view.ViewLayer produce()\n                {\n");
+                    writer.write("                    return new " + entry.getValue().getQualifiedName() + "();\n");
+                    writer.write("                }\n            });\n");
+                }
+                for (Map.Entry<TypeElement, String[]> entry : activities.entrySet()) {
+                    writer.write("        com.scottbyrns.mva.reflection.ModelViewRegistry.register(" + entry.getKey().getQualifiedName() + ".class, "
+                                 + literal(entry.getValue()[0]) + ", " + literal(entry.getValue()[1]) + ");\n");
+                }
+                writer.write("    }\n}\n");
+            }
+            finally {
+                writer.close();
+            }
+        }
+        catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + registry + ": " + e.getMessage());
+        }
+    }
+
+    private String stringValue(TypeElement type, String annotationName, String attribute)
+    {
+        for (AnnotationMirror mirror : processingEnv.getElementUtils().getAllAnnotationMirrors(type)) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotation.getQualifiedName().contentEquals(annotationName)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                    return String.valueOf(entry.getValue().getValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String literal(String value)
+    {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\');
+            }
+            literal.append(c);
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message)
+    {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message)
+    {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+}
@@ -2,18 +2,48 @@ package com.scottbyrns.mva;
 
 import android.app.Activity;
 import android.app.AlertDialog;
-import android.app.ProgressDialog;
 import android.content.Context;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
-
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.scottbyrns.mva.data.BaseDataSource;
 import com.scottbyrns.mva.data.DataCallback;
 import com.scottbyrns.mva.data.DataSource;
 import com.scottbyrns.mva.data.DataSourceFactory;
+import com.scottbyrns.mva.data.EntityCodec;
+import com.scottbyrns.mva.data.PagedDataSource;
+import com.scottbyrns.mva.data.TrackedEntity;
+import com.scottbyrns.mva.metrics.JankWatchdog;
+import com.scottbyrns.mva.metrics.Metrics;
+import com.scottbyrns.mva.metrics.Phase;
+import com.scottbyrns.mva.metrics.StartupPhase;
+import com.scottbyrns.mva.metrics.StartupTrace;
+import com.scottbyrns.mva.metrics.StartupTracer;
+import com.scottbyrns.mva.reflection.DataEventCallback;
+import com.scottbyrns.mva.reflection.DataEventCallbacks;
+import com.scottbyrns.mva.reflection.DataEvents;
 import com.scottbyrns.mva.reflection.ModelViewConfiguration;
+import com.scottbyrns.mva.reflection.ModelViewRegistry;
+import com.scottbyrns.mva.view.DebouncedLoadingIndicator;
+import com.scottbyrns.mva.view.DialogLoadingIndicator;
+import com.scottbyrns.mva.view.LoadingIndicator;
 import com.scottbyrns.mva.view.ViewFactory;
+import com.scottbyrns.mva.view.ViewInflater;
 import com.scottbyrns.mva.view.ViewLayer;
+import com.scottbyrns.mva.view.ViewPool;
 
 
 /**
@@ -40,13 +70,26 @@ public abstract class ModelViewActivity extends Activity
     private DataSource model;
     private ViewLayer viewLayer;
 
-    public static int LOADING = 3141;
-    public static int DONE_LOADING = 3142;
-    public static int SHOW_ALERT = 3143;
-    public static int DID_SAVE = 3144;
-    public static int DID_FAIL_SAVE = 3145;
-    public static int DID_LOAD = 3146;
-    public static int DID_FAIL_LOAD = 3147;
+    public static final int LOADING = 3141;
+    public static final int DONE_LOADING = 3142;
+    public static final int SHOW_ALERT = 3143;
+    public static final int DID_SAVE = 3144;
+    public static final int DID_FAIL_SAVE = 3145;
+    public static final int DID_LOAD = 3146;
+    public static final int DID_FAIL_LOAD = 3147;
+    public static final int DID_UPDATE = 3148;
+    public static final int DID_LOAD_PAGE = 3149;
+    public static final int DID_FAIL_LOAD_PAGE = 3150;
+
+    /**
+     * The largest encoded entity kept in the saved instance state. Larger entities are only kept across configuration
+     * changes, by retaining the data source.
+     */
+    public static final int MAX_SAVED_ENTITY_BYTES = 32 * 1024;
+
+    private static final String SAVED_ENTITY = "com.scottbyrns.mva.entity";
+    private static final String SAVED_ENTITY_VERSION = "com.scottbyrns.mva.entity.version";
+    private static final String SAVED_ENTITY_CHANGED = "com.scottbyrns.mva.entity.changed";
 
     /**
      * Handler to allow non UI threads to operate the activity.
@@ -55,52 +98,311 @@ public abstract class ModelViewActivity extends Activity
         @Override
         public void handleMessage(Message msg)
         {
-
-            if (msg.what == DID_SAVE) {
-                dataDidSave();
+            if (destroyed) {
+                return;
             }
-            if (msg.what == DID_FAIL_SAVE) {
-                dataDidFailToSave();
+            if (!viewReady) {
+                // The layout is still inflating, hold the event until the view has loaded.
+                pendingMessages.add(Message.obtain(msg));
+                return;
             }
-
-            if (msg.what == DID_LOAD) {
-                dataDidLoad();
+            String activity = ModelViewActivity.this.getClass().getName();
+            long start = 0;
+            if (Metrics.isEnabled() && msg.getWhen() != 0) {
+                Metrics.timing(activity, Phase.DISPATCH_DELAY, (SystemClock.uptimeMillis() - msg.getWhen()) * 1000000);
+                start = System.nanoTime();
             }
-
-            if (msg.what == DID_FAIL_LOAD) {
-                dataDidFailToLoad();
+            if (msg.obj instanceof Binding) {
+                JankWatchdog.Watch bindWatch = JankWatchdog.begin(activity, "bind");
+                bind((Binding) msg.obj);
+                JankWatchdog.end(bindWatch);
+            }
+            JankWatchdog.Watch watch = JankWatchdog.begin(activity, getCallback(msg.what));
+            switch (msg.what) {
+                case DID_SAVE:
+                    dispatchEvent(DataEvents.DATA_DID_SAVE);
+                    break;
+                case DID_FAIL_SAVE:
+                    dispatchEvent(DataEvents.DATA_DID_NOT_SAVE);
+                    break;
+                case DID_LOAD:
+                    dispatchEvent(DataEvents.DATA_DID_LOAD);
+                    break;
+                case DID_FAIL_LOAD:
+                    dispatchEvent(DataEvents.DADA_DID_NOT_LOAD);
+                    break;
+                case DID_UPDATE:
+                    dispatchEvent(DataEvents.DATA_DID_UPDATE);
+                    break;
+                case DID_LOAD_PAGE:
+                    dispatchEvent(DataEvents.DATA_DID_LOAD_PAGE);
+                    break;
+                case DID_FAIL_LOAD_PAGE:
+                    dispatchEvent(DataEvents.DATA_DID_NOT_LOAD_PAGE);
+                    break;
+                case LOADING:
+                    loadingIndicator.show();
+                    break;
+                case DONE_LOADING:
+                    loadingIndicator.hide();
+                    break;
+                case SHOW_ALERT:
+                    String[] alert = (String[]) msg.obj;
+
+                    AlertDialog.Builder alertBuilder = new AlertDialog.Builder(ModelViewActivity.this);
+                    alertBuilder.setTitle(alert[0]);
+                    alertBuilder.setMessage(alert[1]);
+                    alertBuilder.create().show();
+                    break;
+            }
+            JankWatchdog.end(watch);
+            if (start != 0) {
+                Metrics.timing(activity, Phase.DISPATCH, System.nanoTime() - start);
             }
+            super.handleMessage(msg);    //To change body of overridden methods use File | Settings | File Templates.
+        }
+    };
+
+    private volatile boolean destroyed;
+    private boolean viewReady;
+    private List<Message> pendingMessages = new ArrayList<Message>();
+
+    /**
+     * Check if the activity can still receive messages from its data source.
+     *
+     * @return False once the activity has been destroyed.
+     */
+    public boolean isAlive()
+    {
+        return !destroyed;
+    }
+
+    /**
+     * Post a data event to the UI thread.
+     *
+     * @param event The data event to deliver.
+     */
+    public void postEvent(DataEvents event)
+    {
+        handler.sendEmptyMessage(getMessage(event));
+    }
 
-            if (msg.what == LOADING) {
-                if (dialog.getContext().equals(ModelViewActivity.this)) {
-                    dialog.show();
+    /**
+     * Post a data event that delivers a new entity to the UI thread, with the change to bind to the view layer.
+     *
+     * The change is computed by {@link ViewLayer#diff(Object, Object)} on the calling thread, normally the worker that
+     * loaded the entity. Called on the UI thread, as it is when the activity starts with an entity already at hand from
+     * the cache, a prefetch or a retained or restored data source, the change is computed inline if it is cheap: when
+     * nothing has been bound yet or the view layer keeps the default diff. Any other diff is computed on a thread of its
+     * own rather than the {@link com.scottbyrns.mva.data.DataSourceExecutor}, so it never waits behind loads. While a
+     * diff is waiting for that thread the diffs posted after it follow it, so events are delivered in the order they
+     * were posted.
+     *
+     * @param event The data event to deliver.
+     */
+    public void postBindingEvent(final DataEvents event)
+    {
+        final Object entity = getDataSource().getEntity();
+        final long sequence = bindingSequence.incrementAndGet();
+        boolean cheap = Thread.currentThread() != uiThread || boundEntity == null || !hasCustomDiff();
+        if (cheap && queuedDiffs.get() == 0) {
+            sendBinding(event, entity, sequence);
+            return;
+        }
+        queuedDiffs.incrementAndGet();
+        getDiffExecutor().execute(new Runnable()
+        {
+            public void run()
+            {
+                try {
+                    sendBinding(event, entity, sequence);
                 }
-                else {
-                    dialog.dismiss();
-                    dialog = ProgressDialog.show(ModelViewActivity.this,
-                                                 null,
-                                                 "Please wait...",
-                                                 true,
-                                                 false);
+                finally {
+                    queuedDiffs.decrementAndGet();
                 }
+            }
+        });
+    }
 
+    /**
+     * Check if the view layer overrides {@link ViewLayer#diff(Object, Object)}, the default returns the entity at once.
+     */
+    private boolean hasCustomDiff()
+    {
+        Boolean custom = customDiff;
+        if (custom == null) {
+            try {
+                custom = getViewLayer().getClass().getMethod("diff", Object.class, Object.class).getDeclaringClass()
+                         != ViewLayer.class;
             }
-            if (msg.what == DONE_LOADING) {
-                dialog.dismiss();
+            catch (NoSuchMethodException e) {
+                custom = Boolean.TRUE;
             }
-            if (msg.what == SHOW_ALERT) {
+            customDiff = custom;
+        }
+        return custom;
+    }
 
-                String title = msg.getData().getString("title");
-                String text = msg.getData().getString("text");
+    private static synchronized ExecutorService getDiffExecutor()
+    {
+        if (diffExecutor == null) {
+            diffExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "ModelView diff");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return diffExecutor;
+    }
 
-                AlertDialog.Builder alertBuilder = new AlertDialog.Builder(ModelViewActivity.this);
-                alertBuilder.setTitle(title);
-                alertBuilder.setMessage(text);
-                alertBuilder.create().show();
-            }
-            super.handleMessage(msg);    //To change body of overridden methods use File | Settings | File Templates.
+    private void sendBinding(DataEvents event, Object entity, long sequence)
+    {
+        Object previous = boundEntity;
+        handler.obtainMessage(getMessage(event),
+                              new Binding(sequence, previous, entity, getViewLayer().diff(previous, entity)))
+               .sendToTarget();
+    }
+
+    private static int getMessage(DataEvents event)
+    {
+        switch (event) {
+            case DATA_DID_SAVE:
+                return DID_SAVE;
+            case DATA_DID_NOT_SAVE:
+                return DID_FAIL_SAVE;
+            case DATA_DID_LOAD:
+                return DID_LOAD;
+            case DADA_DID_NOT_LOAD:
+                return DID_FAIL_LOAD;
+            case DATA_DID_UPDATE:
+                return DID_UPDATE;
+            case DATA_DID_NOT_LOAD_PAGE:
+                return DID_FAIL_LOAD_PAGE;
+            default:
+                return DID_LOAD_PAGE;
         }
-    };
+    }
+
+    /**
+     * Get the name a message is timed under by the {@link JankWatchdog}.
+     */
+    private static String getCallback(int what)
+    {
+        switch (what) {
+            case DID_SAVE:
+                return "dataDidSave";
+            case DID_FAIL_SAVE:
+                return "dataDidFailToSave";
+            case DID_LOAD:
+                return "dataDidLoad";
+            case DID_FAIL_LOAD:
+                return "dataDidFailToLoad";
+            case DID_UPDATE:
+                return "dataDidUpdate";
+            case DID_LOAD_PAGE:
+                return "dataDidLoadPage";
+            case DID_FAIL_LOAD_PAGE:
+                return "dataDidFailToLoadPage";
+            case LOADING:
+                return "showLoadingIndicator";
+            case DONE_LOADING:
+                return "hideLoadingIndicator";
+            case SHOW_ALERT:
+                return "showAlert";
+            default:
+                return "handleMessage";
+        }
+    }
+
+    /**
+     * Computes the diffs posted on the UI thread that are not cheap, in the order they were posted.
+     */
+    private static ExecutorService diffExecutor;
+
+    private volatile Thread uiThread;
+    private volatile Boolean customDiff;
+    private final AtomicInteger queuedDiffs = new AtomicInteger();
+    private final AtomicLong bindingSequence = new AtomicLong();
+    private long boundSequence;
+    private volatile Object boundEntity;
+
+    /**
+     * Bind a new entity to the view layer on the UI thread.
+     */
+    private void bind(Binding binding)
+    {
+        if (binding.sequence < boundSequence) {
+            // A newer entity was posted and has been bound already.
+            return;
+        }
+        boundSequence = binding.sequence;
+        Object diff = binding.diff;
+        if (binding.previous != boundEntity) {
+            // Another entity was bound after this change was computed.
+            diff = getViewLayer().diff(boundEntity, binding.entity);
+        }
+        boundEntity = binding.entity;
+        if (diff != null) {
+            getViewLayer().bind(binding.entity, diff);
+        }
+    }
+
+    /**
+     * A new entity and the change from the entity bound before it.
+     */
+    private static class Binding
+    {
+        private final long sequence;
+        private final Object previous;
+        private final Object entity;
+        private final Object diff;
+
+        Binding(long sequence, Object previous, Object entity, Object diff)
+        {
+            this.sequence = sequence;
+            this.previous = previous;
+            this.entity = entity;
+            this.diff = diff;
+        }
+    }
+
+    /**
+     * Deliver a data event on the UI thread to its abstract callback and then to any methods annotated with a
+     * {@link DataEventCallback} for it.
+     *
+     * @param event The data event to deliver.
+     */
+    protected void dispatchEvent(DataEvents event)
+    {
+        switch (event) {
+            case DATA_DID_SAVE:
+                dataDidSave();
+                break;
+            case DATA_DID_NOT_SAVE:
+                dataDidFailToSave();
+                break;
+            case DATA_DID_LOAD:
+                dataDidLoad();
+                break;
+            case DADA_DID_NOT_LOAD:
+                dataDidFailToLoad();
+                break;
+            case DATA_DID_UPDATE:
+                dataDidUpdate();
+                break;
+            case DATA_DID_LOAD_PAGE:
+                dataDidLoadPage();
+                break;
+            case DATA_DID_NOT_LOAD_PAGE:
+                dataDidFailToLoadPage();
+                break;
+        }
+        DataEventCallbacks.invoke(this, event);
+    }
 
     /**
      * Get the data source that was loaded when the ModelViewActivity was created.
@@ -142,6 +444,18 @@ public abstract class ModelViewActivity extends Activity
         this.viewLayer = viewLayer;
     }
 
+    /**
+     * Get the indicator shown while the data of this ModelViewActivity loads or saves.
+     *
+     * Its show delay and minimum visible time may be changed from {@link #viewDidLoad()}.
+     *
+     * @return The loading indicator, or null before the view has loaded.
+     */
+    public DebouncedLoadingIndicator getLoadingIndicator()
+    {
+        return loadingIndicator;
+    }
+
     /**
      * Get the configuration of this ModelViewActivity.
      *
@@ -166,20 +480,161 @@ public abstract class ModelViewActivity extends Activity
     protected void onCreate(Bundle savedInstanceState)
     {
         super.onCreate(savedInstanceState);
+        uiThread = Thread.currentThread();
+
+        startupTrace = StartupTracer.begin(getClass());
+        trace(StartupPhase.CONFIGURATION);
 
         ViewLayer.setContext(this);
 
-        setModelViewConfiguration(this.getClass().getAnnotation(ModelViewConfiguration.class));
+        ModelViewConfiguration configuration = ModelViewRegistry.getConfiguration(getClass());
+        if (configuration == null) {
+            configuration = getClass().getAnnotation(ModelViewConfiguration.class);
+        }
+        setModelViewConfiguration(configuration);
+
+
+        bootstrap(savedInstanceState);
 
+        if (viewReady) {
+            StartupTracer.finish(startupTrace);
+            startupTrace = null;
+        }
+        else {
+            trace(StartupPhase.AWAIT_VIEW);
+        }
+    }
 
-        bootstrap();
+    /**
+     * Begin a phase of the startup trace, if this start is being traced.
+     */
+    private void trace(StartupPhase phase)
+    {
+        if (startupTrace != null) {
+            startupTrace.begin(phase);
+        }
     }
 
     @Override
     protected void onPause()
     {
         super.onPause();
-        dialog.dismiss();
+        if (loadingIndicator != null) {
+            loadingIndicator.dismiss();
+        }
+        if (isFinishing() && getDataSource() instanceof BaseDataSource) {
+            ((BaseDataSource) getDataSource()).cancel();
+        }
+    }
+
+    @Override
+    protected void onDestroy()
+    {
+        destroyed = true;
+        handler.removeCallbacksAndMessages(null);
+        if (getDataSource() instanceof BaseDataSource && !isChangingConfigurations()) {
+            ((BaseDataSource) getDataSource()).cancel();
+        }
+        if (loadingIndicator != null) {
+            loadingIndicator.dismiss();
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * Keep the entity of the data source in the saved instance state, so it is shown at once and refreshed in the
+     * background if the process is killed and the activity recreated.
+     *
+     * The entity is only kept if the data source has an entity codec and the entity encodes to at most
+     * {@link #MAX_SAVED_ENTITY_BYTES}. Nothing is encoded for a configuration change, the data source is retained
+     * instead.
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState)
+    {
+        super.onSaveInstanceState(outState);
+        if (isChangingConfigurations() || !(getDataSource() instanceof BaseDataSource)) {
+            return;
+        }
+        BaseDataSource dataSource = (BaseDataSource) getDataSource();
+        EntityCodec codec = dataSource.getEntityCodec();
+        Object entity = dataSource.getEntity();
+        if (codec == null || entity == null) {
+            return;
+        }
+        try {
+            byte[] bytes = codec.encode(entity);
+            if (bytes.length <= MAX_SAVED_ENTITY_BYTES) {
+                outState.putByteArray(SAVED_ENTITY, bytes);
+                outState.putInt(SAVED_ENTITY_VERSION, dataSource.getEntityCodecVersion());
+                outState.putBoolean(SAVED_ENTITY_CHANGED,
+                                    entity instanceof TrackedEntity
+                                    && !((TrackedEntity) entity).getChanges().isEmpty());
+            }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Retain the data source, with its entity and any load in flight, for the activity recreated after a configuration
+     * change. Subclasses overriding this lose that unless they return the value of this implementation.
+     */
+    @Override
+    public Object onRetainNonConfigurationInstance()
+    {
+        if (getDataSource() instanceof BaseDataSource) {
+            return new RetainedDataSource((BaseDataSource) getDataSource());
+        }
+        return null;
+    }
+
+    /**
+     * Holds the data source across a configuration change.
+     */
+    private static class RetainedDataSource
+    {
+        private final BaseDataSource dataSource;
+
+        RetainedDataSource(BaseDataSource dataSource)
+        {
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * Restore the entity kept by {@link #onSaveInstanceState(Bundle)}.
+     *
+     * The entity may have changed in storage while the process was gone, so it is shown and then refreshed, see
+     * {@link BaseDataSource#restore(Object, boolean)}.
+     *
+     * @return True if the entity was restored.
+     */
+    private boolean restoreEntity(Bundle savedInstanceState)
+    {
+        if (savedInstanceState == null
+            || !savedInstanceState.containsKey(SAVED_ENTITY)
+            || !(getDataSource() instanceof BaseDataSource)) {
+            return false;
+        }
+        BaseDataSource dataSource = (BaseDataSource) getDataSource();
+        if (dataSource.getEntityCodec() == null) {
+            return false;
+        }
+        try {
+            Object entity = dataSource.decodeEntity(savedInstanceState.getByteArray(SAVED_ENTITY),
+                                                    savedInstanceState.getInt(SAVED_ENTITY_VERSION));
+            if (entity == null) {
+                return false;
+            }
+            dataSource.restore(entity, savedInstanceState.getBoolean(SAVED_ENTITY_CHANGED));
+            return true;
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
     }
 
     /**
@@ -192,6 +647,36 @@ public abstract class ModelViewActivity extends Activity
      */
     public abstract void dataDidFailToLoad();
 
+    /**
+     * The data for the ModelViewActivity was refreshed in the background and has changed since it was loaded.
+     *
+     * By default this treats the refreshed data as a new load.
+     */
+    public void dataDidUpdate()
+    {
+        dataDidLoad();
+    }
+
+    /**
+     * Another page of the data for the ModelViewActivity did load, see {@link PagedDataSource}.
+     *
+     * By default this treats the grown data as a new load.
+     */
+    public void dataDidLoadPage()
+    {
+        dataDidLoad();
+    }
+
+    /**
+     * Another page of the data for the ModelViewActivity did fail to load, see {@link PagedDataSource}.
+     *
+     * The pages already loaded are kept. By default this treats the failure as a failed load.
+     */
+    public void dataDidFailToLoadPage()
+    {
+        dataDidFailToLoad();
+    }
+
     /**
      * The data for the ModelViewActivity did save.
      */
@@ -204,52 +689,171 @@ public abstract class ModelViewActivity extends Activity
 
     /**
      * The view for the ModelViewActivity did load.
+     *
+     * If the view layer is {@link ViewLayer#isInflatedAsynchronously() inflated in the background} this is called after
+     * the data source has started loading, though always before any data event is delivered.
      */
     public abstract void viewDidLoad();
 
-    private ProgressDialog dialog;
+    private DebouncedLoadingIndicator loadingIndicator;
+    private StartupTrace startupTrace;
 
     /**
      * Bootstrap our delegation pattern into the android lifecycle.
+     *
+     * A data source retained across a configuration change is used as it is instead of loading again. An entity kept in
+     * the saved instance state is shown at once and refreshed in the background.
+     *
+     * A layout from the {@link ViewPool} is used if there is one. A layout inflated in the background is waited for
+     * only after the load has started, and data events are held until the view has loaded.
      */
-    private void bootstrap()
+    private void bootstrap(Bundle savedInstanceState)
     {
-
-        dialog = ProgressDialog.show(this,
-                                                                      null,
-                                                                      "Please wait...",
-                                                                      true,
-                                                                      false);
-        dialog.hide();
-
+        trace(StartupPhase.VIEW_LAYER);
         setViewLayer(ViewFactory.produce(getModelViewConfiguration().view()));
 
+        trace(StartupPhase.CONTENT_VIEW);
+        boolean inflating = false;
+        int viewId = getViewLayer().getViewId();
+        View pooled = ViewPool.acquire(this, viewId);
+        if (pooled != null) {
+            setContentView(pooled);
+        }
+        else if (getViewLayer().isInflatedAsynchronously()) {
+            inflating = true;
+            ViewInflater.inflateAsync(this,
+                                      viewId,
+                                      (ViewGroup) findViewById(android.R.id.content),
+                                      handler,
+                                      new ViewInflater.OnInflatedListener()
+                                      {
+                                          public void onInflated(View view, int layoutId)
+                                          {
+                                              if (destroyed) {
+                                                  return;
+                                              }
+                                              setContentView(view);
+                                              finishView();
+                                              StartupTracer.finish(startupTrace);
+                                              startupTrace = null;
+                                          }
+                                      });
+        }
+        else {
+            setContentView(viewId);
+        }
 
-        setDataSource(DataSourceFactory.produce(getModelViewConfiguration().dataSource(),
-                                                ModelViewActivity.this));
-
+        trace(StartupPhase.DATA_SOURCE);
+        Object retained = getLastNonConfigurationInstance();
+        if (retained instanceof RetainedDataSource) {
+            BaseDataSource retainedDataSource = ((RetainedDataSource) retained).dataSource;
+            retainedDataSource.setContext(this);
+            setDataSource(retainedDataSource);
+        }
+        else {
+            DataSource prefetched = DataSourceFactory.claim(getIntent().getStringExtra(DataSourceFactory.PREFETCH_TOKEN),
+                                                            this);
+            if (prefetched != null) {
+                setDataSource(prefetched);
+            }
+            else {
+                setDataSource(DataSourceFactory.produce(getModelViewConfiguration().dataSource(),
+                                                        ModelViewActivity.this));
+            }
+        }
 
-        setContentView(getViewLayer().getViewId());
-        getViewLayer().viewDidRender();
-        viewDidLoad();
+        if (!inflating) {
+            finishView();
+        }
 
+        trace(StartupPhase.LOAD);
         getDataSource().setDataLoadFailureCallback(new DataCallback()
         {
             public void execute()
             {
-                handler.sendEmptyMessage(DID_FAIL_LOAD);
+                postEvent(DataEvents.DADA_DID_NOT_LOAD);
             }
         });
         getDataSource().setDataLoadSuccessCallback(new DataCallback()
         {
             public void execute()
             {
-                handler.sendEmptyMessage(DID_LOAD);
+                postBindingEvent(DataEvents.DATA_DID_LOAD);
             }
         });
+        if (getDataSource() instanceof BaseDataSource) {
+            ((BaseDataSource) getDataSource()).setDataUpdateCallback(new DataCallback()
+            {
+                public void execute()
+                {
+                    postBindingEvent(DataEvents.DATA_DID_UPDATE);
+                }
+            });
+        }
+        if (getDataSource() instanceof PagedDataSource) {
+            ((PagedDataSource) getDataSource()).setDataPageCallback(new DataCallback()
+            {
+                public void execute()
+                {
+                    postBindingEvent(DataEvents.DATA_DID_LOAD_PAGE);
+                }
+            });
+            ((PagedDataSource) getDataSource()).setDataPageFailureCallback(new DataCallback()
+            {
+                public void execute()
+                {
+                    postEvent(DataEvents.DATA_DID_NOT_LOAD_PAGE);
+                }
+            });
+        }
+
+        if (retained instanceof RetainedDataSource) {
+            BaseDataSource dataSource = (BaseDataSource) getDataSource();
+            if (dataSource.isLoading()) {
+                // The load in flight now delivers to this activity.
+                handler.sendEmptyMessage(LOADING);
+                return;
+            }
+            if (dataSource.getEntity() != null) {
+                postBindingEvent(DataEvents.DATA_DID_LOAD);
+                return;
+            }
+        }
+        else if (restoreEntity(savedInstanceState)) {
+            return;
+        }
 
         getDataSource().load();
+    }
 
+    /**
+     * Finish the view once its layout is set, then deliver the data events held while it was inflating.
+     */
+    private void finishView()
+    {
+        String activity = getClass().getName();
+        trace(StartupPhase.VIEW_DID_RENDER);
+        JankWatchdog.Watch watch = JankWatchdog.begin(activity, "viewDidRender");
+        getViewLayer().viewDidRender();
+        JankWatchdog.end(watch);
+        trace(StartupPhase.LOADING_INDICATOR);
+        LoadingIndicator indicator = getViewLayer().getLoadingIndicator();
+        if (indicator == null) {
+            indicator = new DialogLoadingIndicator(this);
+        }
+        loadingIndicator = new DebouncedLoadingIndicator(handler, indicator);
+        trace(StartupPhase.VIEW_DID_LOAD);
+        watch = JankWatchdog.begin(activity, "viewDidLoad");
+        viewDidLoad();
+        JankWatchdog.end(watch);
+
+        viewReady = true;
+        List<Message> pending = pendingMessages;
+        pendingMessages = null;
+        for (Message message : pending) {
+            handler.handleMessage(message);
+            message.recycle();
+        }
     }
 
     /**
@@ -261,14 +865,14 @@ public abstract class ModelViewActivity extends Activity
         {
             public void execute()
             {
-                handler.sendEmptyMessage(DID_FAIL_SAVE);
+                postEvent(DataEvents.DATA_DID_NOT_SAVE);
             }
         });
         getDataSource().setDataSaveSuccessCallback(new DataCallback()
         {
             public void execute()
             {
-                handler.sendEmptyMessage(DID_SAVE);
+                postEvent(DataEvents.DATA_DID_SAVE);
             }
         });
         getDataSource().save();
@@ -283,12 +887,6 @@ public abstract class ModelViewActivity extends Activity
      */
     protected void showAlert(Context context, String title, String text)
     {
-        Message message = new Message();
-        message.what = SHOW_ALERT;
-        Bundle bundle = new Bundle();
-        bundle.putString("title", title);
-        bundle.putString("text", text);
-        message.setData(bundle);
-        handler.sendMessage(message);
+        handler.obtainMessage(SHOW_ALERT, new String[] {title, text}).sendToTarget();
     }
 }
@@ -3,6 +3,31 @@ package com.scottbyrns.mva.data;
 import android.app.Activity;
 import android.app.ProgressDialog;
 import com.scottbyrns.mva.ModelViewActivity;
+import com.scottbyrns.mva.metrics.Metrics;
+import com.scottbyrns.mva.metrics.Phase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A data source is the source of data for a given piece of information.
@@ -15,6 +40,9 @@ import com.scottbyrns.mva.ModelViewActivity;
  * <p/>
  * When data is loaded it should populate the generic Entity of the data source.
  * <p/>
+ * The loads and saves of a data source run one at a time, in the order they were started. Loads and saves of different
+ * data sources run in parallel on the shared {@link DataSourceExecutor}.
+ * <p/>
  * <p/>
  * Copyright (C) 2012 by Scott Byrns
  * http://github.com/scottbyrns
@@ -34,6 +62,7 @@ public abstract class BaseDataSource<Entity> implements DataSource<Entity>
 {
 
     private Activity context;
+    private File filesDir;
     public static ProgressDialog dialog;
 
     /**
@@ -46,6 +75,9 @@ public abstract class BaseDataSource<Entity> implements DataSource<Entity>
     public BaseDataSource(Activity context)
     {
         this.context = context;
+        if (context != null) {
+            filesDir = context.getFilesDir();
+        }
     }
 
     /**
@@ -61,11 +93,34 @@ public abstract class BaseDataSource<Entity> implements DataSource<Entity>
     /**
      * Set the activity context.
      *
-     * @param context An activity context that is active.
+     * The context is null while the data source is prefetched and not yet claimed by its activity.
+     *
+     * @param context An activity context that is active, or null.
      */
     public void setContext(Activity context)
     {
         this.context = context;
+        if (context != null && filesDir == null) {
+            filesDir = context.getFilesDir();
+        }
+    }
+
+    /**
+     * Set the files directory of the application for a data source produced without a context.
+     *
+     * @param filesDir The files directory of the application.
+     */
+    void setFilesDir(File filesDir)
+    {
+        this.filesDir = filesDir;
+    }
+
+    /**
+     * Get the files directory of the application, which is kept while the data source has no context.
+     */
+    private File getFilesDir()
+    {
+        return filesDir;
     }
 
     private DataCallback dataLoadFailureCallback;
@@ -93,6 +148,25 @@ public abstract class BaseDataSource<Entity> implements DataSource<Entity>
         this.dataLoadSuccessCallback = dataLoadSuccessCallback;
     }
 
+    private DataCallback dataUpdateCallback;
+
+    public DataCallback getDataUpdateCallback()
+    {
+        return dataUpdateCallback;
+    }
+
+    /**
+     * Set the data update callback.
+     *
+     * This method is called when a background refresh replaces an entity that was already delivered with a different one.
+     *
+     * @param dataUpdateCallback The callback to execute when the data has been updated.
+     */
+    public void setDataUpdateCallback(DataCallback dataUpdateCallback)
+    {
+        this.dataUpdateCallback = dataUpdateCallback;
+    }
+
     public DataCallback getDataSaveFailureCallback()
     {
         return dataSaveFailureCallback;
@@ -113,182 +187,2069 @@ public abstract class BaseDataSource<Entity> implements DataSource<Entity>
         this.dataSaveSuccessCallback = dataSaveSuccessCallback;
     }
 
-    private Entity entity;
+    private EntitySaveCallback<Entity> entitySaveCallback;
+
+    public EntitySaveCallback<Entity> getEntitySaveCallback()
+    {
+        return entitySaveCallback;
+    }
+
+    /**
+     * Set the entity save callback.
+     *
+     * This is called for each entity of a batch saved by {@link #flushSaves()} and each journaled entity saved or moved
+     * to the dead letters by a {@link #setWriteBehind(boolean) write behind} data source.
+     *
+     * @param entitySaveCallback The callback to execute for each entity saved in a batch.
+     */
+    public void setEntitySaveCallback(EntitySaveCallback<Entity> entitySaveCallback)
+    {
+        this.entitySaveCallback = entitySaveCallback;
+    }
+
+    private volatile Entity entity;
+    private final AtomicLong version = new AtomicLong();
+    private final Object entityLock = new Object();
+    private final AtomicInteger stagingLoads = new AtomicInteger();
+    private final AtomicInteger savingEntities = new AtomicInteger();
+    private final ThreadLocal<SavingEntity> savingEntity = new ThreadLocal<SavingEntity>();
+
+    /**
+     * The entity {@link #saveEntity(Object)} is saving on the current thread.
+     */
+    private final class SavingEntity
+    {
+        private Entity entity;
+
+        private SavingEntity(Entity entity)
+        {
+            this.entity = entity;
+        }
+    }
 
     /**
      * Get the entity that the data source will populate.
      *
+     * Within {@link #loadEntity()} this is the entity the load has set, which is only made the entity of the data source
+     * once the load has succeeded. Within {@link #saveEntity(Object)} this is the entity being saved.
+     *
      * @return Populated entity.
      */
     public Entity getEntity()
     {
+        if (savingEntities.get() != 0) {
+            SavingEntity saving = savingEntity.get();
+            if (saving != null) {
+                return saving.entity;
+            }
+        }
+        if (stagingLoads.get() != 0) {
+            Operation operation = currentOperation.get();
+            if (operation != null && operation.staging && operation.staged) {
+                return operation.stagedEntity;
+            }
+        }
         return entity;
     }
 
     /**
      * Set the data sources entity.
      *
+     * A {@link TrackedEntity} is marked changed in full, as nothing is known of what it holds.
+     *
+     * Called from {@link #loadEntity()} the entity is held until the load has succeeded and then set only if the entity
+     * has not changed since the load began, see {@link #mergeLoadedEntity(Object, Object)}. Called from
+     * {@link #saveEntity(Object)} only the entity being saved is replaced.
+     *
      * @param entity  The data sources entity.
      */
     public void setEntity(Entity entity)
     {
-        this.entity = entity;
+        if (savingEntities.get() != 0) {
+            SavingEntity saving = savingEntity.get();
+            if (saving != null) {
+                saving.entity = entity;
+                return;
+            }
+        }
+        if (stagingLoads.get() != 0) {
+            Operation operation = currentOperation.get();
+            if (operation != null && operation.staging) {
+                operation.stagedEntity = entity;
+                operation.staged = true;
+                return;
+            }
+        }
+        synchronized (entityLock) {
+            this.entity = entity;
+            version.incrementAndGet();
+        }
+        if (entity instanceof TrackedEntity) {
+            ((TrackedEntity) entity).getChanges().markAll();
+        }
     }
 
     /**
-     * Load the data source in a new thread.
+     * Make an entity that was loaded, or taken from the cache or a snapshot, the entity of the data source.
      *
-     * When data sources are loading a loading indicator will take focus in the view. This indicator will go away on load success and failure.
+     * An entity that changed since the load began, or that has unsaved changes, is resolved with the loaded one by
+     * {@link #mergeLoadedEntity(Object, Object)} rather than replaced.
+     *
+     * @param loaded      The entity to make the entity of the data source.
+     * @param baseVersion The version the entity had when the load began.
+     * @param stamp       False to show a last known entity while a load brings the real one. The version is then left
+     *                    alone so the load in flight, or one that joins it, is not mistaken for one that raced a change
+     *                    to the entity.
+     * @return The entity kept.
      */
-    public void load()
+    private Entity adopt(Entity loaded, long baseVersion, boolean stamp)
     {
-        ((ModelViewActivity)getContext()).handler.sendEmptyMessage(ModelViewActivity.LOADING);
-        new Thread(new Runnable()
-        {
-            public void run()
-            {
-                if (!doLoadEntity())
-                {
-                    ((ModelViewActivity)getContext()).handler.sendEmptyMessage(ModelViewActivity.DONE_LOADING);
-                    try
-                    {
-                        getDataLoadFailureCallback().execute();
-                    }
-                    catch (NullPointerException e)
-                    {
-                        // NOP No callback set.
-                    }
-                }
-                else
-                {
-                    try {
-                        ((ModelViewActivity)getContext()).handler.sendEmptyMessage(ModelViewActivity.DONE_LOADING);
-                        getDataLoadSuccessCallback().execute();
-                    }
-                    catch (NullPointerException e) {
-                        // NOP No callback set.
+        while (true) {
+            long seen = version.get();
+            Entity current = entity;
+            Entity result = loaded;
+            if (current != loaded && (seen != baseVersion || hasUnsavedChanges(current))) {
+                result = mergeLoadedEntity(current, loaded);
+            }
+            synchronized (entityLock) {
+                if (version.get() == seen) {
+                    entity = result;
+                    if (stamp) {
+                        version.incrementAndGet();
                     }
+                    return result;
                 }
             }
-        }).start();
+        }
+    }
 
+    /**
+     * Get the version of the entity.
+     *
+     * The version is stamped each time the entity is set, a load commits or a save is started. Showing a stale entity
+     * ahead of a load does not stamp it.
+     *
+     * @return The version of the entity.
+     */
+    public long getVersion()
+    {
+        return version.get();
     }
 
     /**
-     * Save the data source in a new thread.
+     * Resolve a load that finished after the entity changed, by a call to {@link #setEntity(Object)} or a save started
+     * while the load was running, or that finished while a {@link TrackedEntity} had unsaved changes. Entities served
+     * from the cache or shown while a {@link LoadMode#STALE_WHILE_REVALIDATE} load runs are resolved the same way.
      *
-     * When data sources are saving a save indicator will take focus in the view. This indicator will go away on save success and failure.
+     * By default the loaded entity is rejected so newer state is never overwritten. Override this to merge the two.
+     *
+     * @param current The entity of the data source.
+     * @param loaded  The entity the load produced.
+     * @return The entity to keep.
      */
-    public void save()
+    protected Entity mergeLoadedEntity(Entity current, Entity loaded)
     {
+        return current;
+    }
 
+    /**
+     * Make the entity set by a load the entity of the data source, unless the entity changed while it loaded.
+     */
+    private void commitLoad(Operation operation)
+    {
+        if (operation.staged) {
+            adopt(operation.stagedEntity, operation.baseVersion, true);
+        }
+    }
 
-        ((ModelViewActivity)getContext()).handler.sendEmptyMessage(ModelViewActivity.LOADING);
+    private static boolean hasUnsavedChanges(Object entity)
+    {
+        return entity instanceof TrackedEntity && !((TrackedEntity) entity).getChanges().isEmpty();
+    }
 
-        new Thread(new Runnable()
-        {
-            public void run()
-            {
-                if (!doSaveEntity())
-                {
-                    try
-                    {
-                        ((ModelViewActivity)getContext()).handler.sendEmptyMessage(ModelViewActivity.DONE_LOADING);
-                        getDataSaveFailureCallback().execute();
-                    }
-                    catch (NullPointerException e)
-                    {
-                        // NOP No callback set.
-                    }
-                }
-                else
-                {
-                    try {
-                        ((ModelViewActivity)getContext()).handler.sendEmptyMessage(ModelViewActivity.DONE_LOADING);
-                        getDataSaveSuccessCallback().execute();
-                    }
-                    catch (NullPointerException e) {
-                        // NOP No callback set.
-                    }
-                }
-            }
-        }).start();
+    private final ThreadLocal<ChangeSet> savingChanges = new ThreadLocal<ChangeSet>();
 
+    /**
+     * Get the changes being saved by {@link #saveEntity()} on the current thread, so it can save only those.
+     *
+     * @return The changes to a {@link TrackedEntity} since it was last loaded or saved, or null if the whole entity
+     * should be saved.
+     */
+    protected ChangeSet getChanges()
+    {
+        ChangeSet changes = savingChanges.get();
+        return changes == null || changes.isAll() ? null : changes;
     }
 
     /**
-     * Perform a load of a data sources entity.
+     * Forget the changes to an entity read from storage, which matches what is stored.
+     *
+     * Only an entity that was just loaded or decoded may be marked clean. The entity of the data source, and the cached
+     * instances of it, may hold changes the user has not saved.
      */
-    protected boolean doLoadEntity()
+    private void markClean(Entity stored)
     {
-        try
-        {
-            beforeEntityLoad();
-            loadEntity();
-            afterEntityLoad();
-            return true;
-        }
-        catch (Throwable e)
-        {
-            Throwable asdf = e;
-            return false;
+        if (stored instanceof TrackedEntity) {
+            ((TrackedEntity) stored).getChanges().clear();
         }
     }
 
     /**
-     * Called before {@link com.scottbyrns.mva.data.BaseDataSource#loadEntity()} ()}
+     * Take the changes to the entity for a save.
+     *
+     * @return The changes or null if the entity is not tracked.
      */
-    protected void beforeEntityLoad()
+    private ChangeSet drainChanges()
     {
+        Entity current = getEntity();
+        return current instanceof TrackedEntity ? ((TrackedEntity) current).getChanges().drain() : null;
     }
 
     /**
-     * Called after {@link com.scottbyrns.mva.data.BaseDataSource#loadEntity()} ()}
+     * Put back the changes of a save that failed, if the entity was not replaced since.
      */
-    protected void afterEntityLoad()
+    private void restoreChanges(Entity saved, ChangeSet changes)
     {
+        if (changes != null && saved == getEntity()) {
+            ((TrackedEntity) saved).getChanges().merge(changes);
+        }
     }
 
+    private String name;
+
     /**
-     * Perform a load of the data sources data.
+     * Get the name this data source was produced under by the {@link DataSourceFactory}.
+     *
+     * @return The name of the data source or null if it was not produced by the factory.
      */
-    protected abstract void loadEntity() throws Throwable;
+    public String getName()
+    {
+        return name;
+    }
 
     /**
-     * Perform a save of the data sources entity.
+     * Set the name of this data source.
+     *
+     * @param name The name the data source is registered under.
      */
-    private boolean doSaveEntity()
+    public void setName(String name)
     {
-        try
-        {
-            beforeEntityLoad();
-            saveEntity();
-            afterEntityLoad();
-            return true;
+        this.name = name;
+    }
+
+    /**
+     * Get the key this data sources entity is stored under in the {@link EntityCache}.
+     *
+     * Caching is opt in. Override this to return a key identifying the entity, such as the id of the record being
+     * shown, and loads will be served from the cache while the cached entity is fresh.
+     *
+     * @return The cache key of the entity or null to not cache it.
+     */
+    protected Object getCacheKey()
+    {
+        return null;
+    }
+
+    private boolean loadFromCache()
+    {
+        Object key = getCacheKey();
+        if (key == null || getName() == null) {
+            return false;
         }
-        catch (Throwable e)
-        {
-            e.printStackTrace();
+        Entity cached = (Entity) EntityCache.get(getName(), key);
+        if (cached == null) {
             return false;
         }
+        // The cache holds the instances the data source had, which are never marked clean as they may hold changes.
+        adopt(cached, getVersion(), true);
+        try {
+            getDataLoadSuccessCallback().execute();
+        }
+        catch (NullPointerException e) {
+            // NOP No callback set.
+        }
+        return true;
+    }
+
+    private Entity lastKnownEntity()
+    {
+        if (getEntity() != null) {
+            return getEntity();
+        }
+        Object key = getCacheKey();
+        if (key == null || getName() == null) {
+            return null;
+        }
+        return (Entity) EntityCache.getStale(getName(), key);
+    }
+
+    private void storeInCache()
+    {
+        Object key = getCacheKey();
+        if (key != null && getName() != null) {
+            EntityCache.put(getName(), key, getEntity());
+        }
     }
 
+    private int priority = DataSourceExecutor.DEFAULT_PRIORITY;
+
     /**
-     * Called before {@link com.scottbyrns.mva.data.BaseDataSource#saveEntity()}
+     * Get the priority of this data sources work on the shared {@link DataSourceExecutor}.
+     *
+     * @return The priority of this data source.
      */
-    protected void beforeEntitySave()
+    public int getPriority()
     {
+        return priority;
     }
 
     /**
-     * Called after {@link com.scottbyrns.mva.data.BaseDataSource#saveEntity()}
+     * Set the priority of this data sources work on the shared {@link DataSourceExecutor}.
+     *
+     * Work from data sources with a higher priority is run before work from data sources with a lower priority.
+     *
+     * @param priority The priority of this data source.
      */
-    protected void afterEntitySave()
+    public void setPriority(int priority)
     {
+        this.priority = priority;
     }
 
+    private InFlightPolicy inFlightPolicy = InFlightPolicy.JOIN;
+
     /**
-     * Perform a save of the data sources data.
+     * Get what this data source does when {@link #load()} is called while a load is in flight.
+     *
+     * @return The in flight policy of this data source.
      */
-    protected abstract void saveEntity() throws Throwable;
+    public InFlightPolicy getInFlightPolicy()
+    {
+        return inFlightPolicy;
+    }
+
+    /**
+     * Set what this data source does when {@link #load()} is called while a load is in flight.
+     *
+     * By default the call joins the load in flight.
+     *
+     * @param inFlightPolicy The in flight policy of this data source.
+     */
+    public void setInFlightPolicy(InFlightPolicy inFlightPolicy)
+    {
+        this.inFlightPolicy = inFlightPolicy;
+    }
+
+    private LoadMode loadMode = LoadMode.BLOCKING;
+
+    /**
+     * Get how this data source delivers its entity when it is loaded.
+     *
+     * @return The load mode of this data source.
+     */
+    public LoadMode getLoadMode()
+    {
+        return loadMode;
+    }
+
+    /**
+     * Set how this data source delivers its entity when it is loaded.
+     *
+     * @param loadMode The load mode of this data source.
+     */
+    public void setLoadMode(LoadMode loadMode)
+    {
+        this.loadMode = loadMode;
+    }
+
+    private volatile RetryPolicy retryPolicy;
+
+    /**
+     * Get how failed loads and saves of this data source are retried.
+     *
+     * @return The policy set on this data source, or else the one its class declares with a
+     * {@link com.scottbyrns.mva.reflection.Retry}, or else {@link RetryPolicy#NONE}.
+     */
+    public RetryPolicy getRetryPolicy()
+    {
+        RetryPolicy policy = retryPolicy;
+        return policy != null ? policy : RetryPolicy.forClass(getClass());
+    }
+
+    /**
+     * Set how failed loads and saves of this data source are retried.
+     *
+     * @param retryPolicy The retry policy, or null for the one its class declares.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy)
+    {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Get the circuit breaker shared by every data source with this data sources name.
+     *
+     * @return The circuit breaker.
+     */
+    public CircuitBreaker getCircuitBreaker()
+    {
+        return CircuitBreaker.forName(getMetricsName());
+    }
+
+    private final Object loadLock = new Object();
+    private Operation inFlightLoad;
+    private int loadGeneration;
+    private boolean loadingShown;
+
+    private final Set<Operation> operations = new HashSet<Operation>();
+    private final ThreadLocal<Operation> currentOperation = new ThreadLocal<Operation>();
+
+    /**
+     * Cancel every load of this data source that is in flight.
+     *
+     * Loads that have not started are dropped. Loads that are running are interrupted and should stop at their next
+     * check of {@link #isCancelled()}. Cancelled loads do not execute any callbacks.
+     *
+     * Saves are never dropped. Queued batches are started straight away and saves in flight run to completion and
+     * execute their callbacks, but no longer post to the activity.
+     */
+    public void cancel()
+    {
+        List<Operation> cancelled = new ArrayList<Operation>();
+        boolean detached = false;
+        synchronized (operations) {
+            for (Iterator<Operation> iterator = operations.iterator(); iterator.hasNext(); ) {
+                Operation operation = iterator.next();
+                if (operation.save) {
+                    operation.detached = true;
+                    detached = true;
+                }
+                else {
+                    cancelled.add(operation);
+                    iterator.remove();
+                }
+            }
+        }
+        synchronized (loadLock) {
+            inFlightLoad = null;
+            loadGeneration++;
+            loadingShown = false;
+            holdResult = false;
+            heldResult = null;
+        }
+        if (scheduledDrain != null) {
+            scheduledDrain.cancel(false);
+        }
+        for (Operation operation : cancelled) {
+            operation.cancel();
+        }
+        drainQueued.set(false);
+        detached |= flushSaves(false);
+        if (!cancelled.isEmpty() || detached) {
+            post(ModelViewActivity.DONE_LOADING);
+        }
+    }
+
+    /**
+     * Check if the load or save running on the current thread has been cancelled.
+     *
+     * Long running implementations of {@link #loadEntity()} and {@link #saveEntity()} should check this and stop early.
+     *
+     * @return True if the work on the current thread has been cancelled.
+     */
+    protected boolean isCancelled()
+    {
+        Operation operation = currentOperation.get();
+        return (operation != null && operation.isCancelled()) || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Post a message to the activity the data source belongs to.
+     *
+     * Messages are dropped once the activity has been destroyed so finished activities are not kept alive by their queue.
+     */
+    private void post(int what)
+    {
+        Operation operation = currentOperation.get();
+        if (operation != null && operation.detached) {
+            return;
+        }
+        Activity context = getContext();
+        if (context instanceof ModelViewActivity && ((ModelViewActivity) context).isAlive()) {
+            ((ModelViewActivity) context).handler.sendEmptyMessage(what);
+        }
+    }
+
+    /**
+     * Check if a load of this data source is in flight.
+     *
+     * @return True if a load has been started and has not yet delivered its result.
+     */
+    public boolean isLoading()
+    {
+        synchronized (loadLock) {
+            return inFlightLoad != null;
+        }
+    }
+
+    /**
+     * Load the data source on the shared {@link DataSourceExecutor}.
+     *
+     * When data sources are loading a loading indicator will take focus in the view. This indicator will go away on load success and failure.
+     *
+     * Calls made while a load is in flight are handled according to the {@link InFlightPolicy} of the data source.
+     *
+     * If the data source has a {@link #getCacheKey() cache key} and a fresh entity is cached it is used without loading.
+     * In {@link LoadMode#STALE_WHILE_REVALIDATE} the last known entity is delivered before the load starts.
+     */
+    public void load()
+    {
+        Boolean prefetched;
+        boolean adopted;
+        synchronized (loadLock) {
+            // A prefetch still in flight is joined whatever the in flight policy.
+            adopted = holdResult && inFlightLoad != null;
+            holdResult = false;
+            prefetched = heldResult;
+            heldResult = null;
+        }
+        if (prefetched != null) {
+            deliverLoadResult(prefetched);
+            return;
+        }
+        if (adopted) {
+            synchronized (loadLock) {
+                showLoading();
+            }
+            return;
+        }
+
+        if (loadFromCache()) {
+            return;
+        }
+
+        final Entity stale = getLoadMode() == LoadMode.STALE_WHILE_REVALIDATE ? lastKnownEntity() : null;
+        final boolean fromSnapshot = stale == null && isSnapshotting() && getEntity() == null;
+        if (stale != null) {
+            adopt(stale, getVersion(), false);
+            try {
+                getDataLoadSuccessCallback().execute();
+            }
+            catch (NullPointerException e) {
+                // NOP No callback set.
+            }
+        }
+
+        synchronized (loadLock) {
+            if (inFlightLoad != null) {
+                if (getInFlightPolicy() == InFlightPolicy.JOIN) {
+                    // The load in flight already shows the loading indicator if it needs one.
+                    return;
+                }
+                inFlightLoad.cancel();
+            }
+            // A replaced load hands its loading indicator over to this one, or hides it if this one shows none.
+            if (stale == null && !fromSnapshot) {
+                showLoading();
+            }
+            else {
+                hideLoading();
+            }
+            startLoad(stale, fromSnapshot);
+        }
+    }
+
+    /**
+     * Show the loading indicator for the load in flight, unless it is already shown. Called holding the load lock.
+     */
+    private void showLoading()
+    {
+        if (!loadingShown) {
+            loadingShown = true;
+            post(ModelViewActivity.LOADING);
+        }
+    }
+
+    /**
+     * Hide the loading indicator shown by {@link #showLoading()}, if it is shown. Called holding the load lock.
+     */
+    private void hideLoading()
+    {
+        if (loadingShown) {
+            loadingShown = false;
+            post(ModelViewActivity.DONE_LOADING);
+        }
+    }
+
+    /**
+     * Load the data source and wait for the load to finish.
+     *
+     * The load takes the same path as {@link #load()}, so it is served from the cache if it can be, queued behind the
+     * other work of the data source, retried, guarded by the circuit breaker and committed only if the entity did not
+     * change meanwhile. A load already in flight is joined. The calling thread runs the load itself if no worker has
+     * started it yet, so a {@link CompositeDataSource} loading its children cannot starve them of threads.
+     *
+     * @return The cause of the failure or null if the load succeeded.
+     */
+    Throwable loadAndWait() throws InterruptedException
+    {
+        if (loadFromCache()) {
+            return null;
+        }
+        Operation operation;
+        synchronized (loadLock) {
+            operation = inFlightLoad;
+            if (operation == null) {
+                showLoading();
+                startLoad(null, false);
+                operation = inFlightLoad;
+            }
+        }
+        operation.await();
+        if (operation.isCancelled()) {
+            return new CancellationException("The load of " + getMetricsName() + " was cancelled.");
+        }
+        return operation.getCause();
+    }
+
+    /**
+     * Show an entity restored from saved state, such as the saved instance state of an activity recreated after its
+     * process was killed, and refresh it in the background.
+     *
+     * The entity is delivered to the load success callback without stamping a new version, and then revalidated as a
+     * {@link LoadMode#STALE_WHILE_REVALIDATE} load would, executing the data update callback if the load brings a
+     * different entity. No loading indicator is shown.
+     *
+     * @param entity  The restored entity.
+     * @param changed True if the entity had changes that were not saved. A {@link TrackedEntity} is then marked changed
+     *                in full, as which of it changed is not known, and otherwise marked clean.
+     */
+    public void restore(Entity entity, boolean changed)
+    {
+        if (entity instanceof TrackedEntity) {
+            if (changed) {
+                ((TrackedEntity) entity).getChanges().markAll();
+            }
+            else {
+                markClean(entity);
+            }
+        }
+        adopt(entity, getVersion(), false);
+        try {
+            getDataLoadSuccessCallback().execute();
+        }
+        catch (NullPointerException e) {
+            // NOP No callback set.
+        }
+        synchronized (loadLock) {
+            if (inFlightLoad == null) {
+                startLoad(entity, false);
+            }
+        }
+    }
+
+    private boolean holdResult;
+    private Boolean heldResult;
+
+    /**
+     * Start loading the data source ahead of the activity that will show it.
+     *
+     * No loading indicator is shown and the result is held rather than delivered to the callbacks. The next call to
+     * {@link #load()} delivers the held result, or joins the prefetch if it is still in flight, whatever the
+     * {@link InFlightPolicy}.
+     *
+     * @see DataSourceFactory#prefetch(String, android.app.Activity)
+     */
+    public void prefetch()
+    {
+        synchronized (loadLock) {
+            if (inFlightLoad != null || heldResult != null) {
+                return;
+            }
+            holdResult = true;
+            startLoad(null, false);
+        }
+    }
+
+    /**
+     * Start a load on the shared executor. Called holding the load lock.
+     *
+     * @param stale        The entity already delivered, to be revalidated, or null.
+     * @param fromSnapshot True to deliver the stored snapshot, if there is one, before loading.
+     */
+    private void startLoad(final Entity stale, final boolean fromSnapshot)
+    {
+        final int generation = ++loadGeneration;
+        inFlightLoad = new Operation()
+        {
+            private Entity delivered = stale;
+
+            void perform()
+            {
+                if (fromSnapshot && isFirstAttempt()) {
+                    delivered = deliverSnapshot(generation);
+                }
+                beginStaging();
+                boolean loaded;
+                try {
+                    loaded = doLoadEntity();
+                }
+                finally {
+                    endStaging();
+                }
+                if (!loaded && retryLater(getFailure())) {
+                    return;
+                }
+                if (!loaded) {
+                    failWith(getFailure());
+                }
+                boolean held;
+                synchronized (loadLock) {
+                    if (generation != loadGeneration) {
+                        // A newer load replaced this one.
+                        return;
+                    }
+                    inFlightLoad = null;
+                    if (loaded) {
+                        commitLoad(this);
+                    }
+                    held = holdResult;
+                    if (held) {
+                        heldResult = loaded;
+                        holdResult = false;
+                    }
+                }
+                if (loaded) {
+                    storeInCache();
+                    storeSnapshot();
+                }
+                if (held) {
+                    return;
+                }
+                if (delivered != null) {
+                    deliverRevalidateResult(loaded, delivered);
+                }
+                else {
+                    deliverLoadResult(loaded);
+                }
+            }
+        };
+        inFlightLoad.start();
+    }
+
+    /**
+     * Deliver the stored snapshot ahead of a load, or show the loading indicator if there is none.
+     *
+     * @return The delivered entity or null.
+     */
+    private Entity deliverSnapshot(int generation)
+    {
+        Entity snapshot = readSnapshot();
+        synchronized (loadLock) {
+            if (generation != loadGeneration) {
+                return null;
+            }
+            if (snapshot != null) {
+                markClean(snapshot);
+                adopt(snapshot, getVersion(), false);
+            }
+        }
+        if (snapshot == null) {
+            synchronized (loadLock) {
+                if (generation == loadGeneration) {
+                    showLoading();
+                }
+            }
+            return null;
+        }
+        try {
+            getDataLoadSuccessCallback().execute();
+        }
+        catch (NullPointerException e) {
+            // NOP No callback set.
+        }
+        return snapshot;
+    }
+
+    /**
+     * A stale entity has already been delivered so a failed refresh keeps it and only a changed entity is reported.
+     */
+    private void deliverRevalidateResult(boolean loaded, Entity stale)
+    {
+        if (!loaded) {
+            if (getEntity() == null) {
+                adopt(stale, getVersion(), false);
+            }
+            return;
+        }
+        Entity fresh = getEntity();
+        if (fresh == null ? stale == null : fresh.equals(stale)) {
+            return;
+        }
+        try {
+            getDataUpdateCallback().execute();
+        }
+        catch (NullPointerException e) {
+            // NOP No callback set.
+        }
+    }
+
+    private void deliverLoadResult(boolean loaded)
+    {
+        synchronized (loadLock) {
+            hideLoading();
+        }
+        if (!loaded)
+        {
+            try
+            {
+                getDataLoadFailureCallback().execute();
+            }
+            catch (NullPointerException e)
+            {
+                // NOP No callback set.
+            }
+        }
+        else
+        {
+            try {
+                getDataLoadSuccessCallback().execute();
+            }
+            catch (NullPointerException e) {
+                // NOP No callback set.
+            }
+        }
+    }
+
+    private final Object batchLock = new Object();
+    private List<Entity> pendingSaves = new ArrayList<Entity>();
+    private ScheduledFuture<?> scheduledFlush;
+    private int batchSize = 20;
+    private long batchDelay = 1000;
+
+    /**
+     * Get the number of queued entities that triggers a batch save.
+     *
+     * @return The batch size.
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of queued entities that triggers a batch save.
+     *
+     * @param batchSize The batch size.
+     */
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the time in milliseconds queued entities wait for more entities before they are saved.
+     *
+     * @return The batch delay.
+     */
+    public long getBatchDelay()
+    {
+        return batchDelay;
+    }
+
+    /**
+     * Set the time in milliseconds queued entities wait for more entities before they are saved.
+     *
+     * @param batchDelay The batch delay.
+     */
+    public void setBatchDelay(long batchDelay)
+    {
+        this.batchDelay = batchDelay;
+    }
+
+    /**
+     * Queue an entity to be saved in a batch.
+     *
+     * The queue is saved through {@link #saveEntities(java.util.Collection)} once it reaches the
+     * {@link #getBatchSize() batch size} or the {@link #getBatchDelay() batch delay} has passed since the first entity
+     * was queued, whichever comes first.
+     *
+     * @param entity The entity to save.
+     */
+    public void queueSave(Entity entity)
+    {
+        boolean full;
+        synchronized (batchLock) {
+            pendingSaves.add(entity);
+            full = pendingSaves.size() >= getBatchSize();
+            if (!full && scheduledFlush == null) {
+                scheduledFlush = DataSourceExecutor.schedule(new Runnable()
+                {
+                    public void run()
+                    {
+                        flushSaves();
+                    }
+                }, getPriority(), getBatchDelay());
+            }
+        }
+        if (full) {
+            flushSaves();
+        }
+    }
+
+    /**
+     * Save the queued entities now.
+     *
+     * The save callbacks are executed once for each entity in the batch, in the order the entities were queued. The
+     * {@link #setEntitySaveCallback(EntitySaveCallback) entity save callback} is told which entity saved or failed.
+     */
+    public void flushSaves()
+    {
+        flushSaves(true);
+    }
+
+    /**
+     * Save the queued entities now.
+     *
+     * @param attached False to save without posting to the activity.
+     *
+     * @return True if a batch was started.
+     */
+    private boolean flushSaves(boolean attached)
+    {
+        final List<Entity> batch;
+        synchronized (batchLock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pendingSaves.isEmpty()) {
+                return false;
+            }
+            batch = pendingSaves;
+            pendingSaves = new ArrayList<Entity>();
+        }
+
+        if (attached) {
+            post(ModelViewActivity.LOADING);
+        }
+
+        Operation operation = new Operation(true)
+        {
+            void perform()
+            {
+                Map<Entity, Throwable> failures;
+                try {
+                    failures = saveEntities(batch);
+                }
+                catch (Throwable e) {
+                    e.printStackTrace();
+                    failures = new IdentityHashMap<Entity, Throwable>();
+                    for (Entity entity : batch) {
+                        failures.put(entity, e);
+                    }
+                }
+                if (isCancelled()) {
+                    return;
+                }
+                post(ModelViewActivity.DONE_LOADING);
+                EntitySaveCallback<Entity> entitySaveCallback = getEntitySaveCallback();
+                for (Entity entity : batch) {
+                    boolean failed = failures.containsKey(entity);
+                    if (entitySaveCallback != null) {
+                        if (failed) {
+                            entitySaveCallback.entityFailedToSave(entity, failures.get(entity));
+                        }
+                        else {
+                            entitySaveCallback.entitySaved(entity);
+                        }
+                    }
+                    try {
+                        if (failed) {
+                            getDataSaveFailureCallback().execute();
+                        }
+                        else {
+                            getDataSaveSuccessCallback().execute();
+                        }
+                    }
+                    catch (NullPointerException e) {
+                        // NOP No callback set.
+                    }
+                }
+            }
+        };
+        operation.detached = !attached;
+        operation.start();
+        return true;
+    }
+
+    private EntityCodec<Entity> entityCodec;
+    private boolean writeBehind;
+    private long writeBehindRetryDelay = 1000;
+    private long writeBehindMaxRetryDelay = 5 * 60 * 1000;
+    private int writeBehindMaxAttempts = 8;
+    private volatile ScheduledFuture<?> scheduledDrain;
+
+    /**
+     * Get the codec used to write this data sources entity to local storage.
+     *
+     * @return The entity codec or null if the entity is not written to local storage.
+     */
+    public EntityCodec<Entity> getEntityCodec()
+    {
+        return entityCodec;
+    }
+
+    /**
+     * Set the codec used to write this data sources entity to local storage.
+     *
+     * @param entityCodec The entity codec.
+     */
+    public void setEntityCodec(EntityCodec<Entity> entityCodec)
+    {
+        this.entityCodec = entityCodec;
+    }
+
+    /**
+     * Check if saves are written behind.
+     *
+     * @return True if saves are written behind.
+     */
+    public boolean isWriteBehind()
+    {
+        return writeBehind;
+    }
+
+    /**
+     * Set if saves are written behind.
+     *
+     * A write behind {@link #save()} encodes the entity with the {@link #getEntityCodec() entity codec}, appends it to
+     * a {@link SaveJournal} kept in the files directory of the application and reports success as soon as it is on
+     * disk. The journal is then drained through {@link #saveEntity(Object)} in the background, retrying failed entries
+     * with exponential backoff. An entry that fails with an error that is not {@link #isRetryable(Throwable) retryable},
+     * or that fails {@link #setWriteBehindMaxAttempts(int) too often}, is moved to the {@link #getDeadLetters() dead
+     * letters} and reported to the save failure callbacks so the entries behind it can be saved. Entries left in the journal when the application stopped, or when the data source was
+     * cancelled, are drained the next time write behind is turned on for this data source class.
+     *
+     * @param writeBehind True to write saves behind.
+     */
+    public void setWriteBehind(boolean writeBehind)
+    {
+        if (writeBehind && getEntityCodec() == null) {
+            throw new IllegalStateException("Write behind saves need an entity codec.");
+        }
+        this.writeBehind = writeBehind;
+        if (writeBehind) {
+            drainJournal(writeBehindRetryDelay);
+        }
+    }
+
+    /**
+     * Set the delays between attempts to save a journaled entity.
+     *
+     * @param retryDelay The delay in milliseconds after the first failure, doubled after each further failure.
+     * @param maxRetryDelay The longest delay in milliseconds between attempts.
+     */
+    public void setWriteBehindRetryDelay(long retryDelay, long maxRetryDelay)
+    {
+        this.writeBehindRetryDelay = retryDelay;
+        this.writeBehindMaxRetryDelay = maxRetryDelay;
+    }
+
+    public int getWriteBehindMaxAttempts()
+    {
+        return writeBehindMaxAttempts;
+    }
+
+    /**
+     * Set the number of attempts to save a journaled entity before it is moved to the dead letters.
+     *
+     * @param maxAttempts The number of attempts including the first.
+     */
+    public void setWriteBehindMaxAttempts(int maxAttempts)
+    {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Write behind saves need at least one attempt.");
+        }
+        this.writeBehindMaxAttempts = maxAttempts;
+    }
+
+    /**
+     * Check if a journaled entity that failed to save should be tried again.
+     *
+     * By default checked exceptions are retried. Runtime exceptions and errors point at an entity that will never
+     * save, so it is moved to the {@link #getDeadLetters() dead letters} at once.
+     *
+     * @param cause The cause of the failure.
+     * @return True to try again.
+     */
+    protected boolean isRetryable(Throwable cause)
+    {
+        return cause instanceof Exception && !(cause instanceof RuntimeException);
+    }
+
+    /**
+     * Get the journaled entities that could not be saved.
+     *
+     * The entries are encoded with the {@link #getEntityCodec() entity codec}. Acknowledge an entry once it has been
+     * dealt with to remove it.
+     *
+     * @return The dead letter journal of this data source class.
+     */
+    public SaveJournal getDeadLetters()
+    {
+        return SaveJournal.open(new File(getFilesDir(), "mva-" + getClass().getName() + ".deadletter"));
+    }
+
+    private boolean snapshotting;
+    private SnapshotStore snapshotStore;
+
+    /**
+     * Check if this data source keeps a persistent snapshot of its entity.
+     *
+     * @return True if snapshots are kept.
+     */
+    public boolean isSnapshotting()
+    {
+        return snapshotting;
+    }
+
+    /**
+     * Keep a persistent snapshot of the entity in the {@link #getSnapshotStore() snapshot store}.
+     *
+     * Each successful load and save writes the entity, encoded with the {@link #getEntityCodec() entity codec}, to the
+     * store. A load while the data source has no entity, such as the first after a restart of the application, delivers
+     * the snapshot first and then refreshes it as a {@link LoadMode#STALE_WHILE_REVALIDATE} load would. The snapshot is
+     * kept if the refresh fails, so the data source keeps working offline.
+     *
+     * @param snapshotting True to keep snapshots.
+     * @throws IllegalStateException If there is no entity codec.
+     */
+    public void setSnapshotting(boolean snapshotting)
+    {
+        if (snapshotting && getEntityCodec() == null) {
+            throw new IllegalStateException("Snapshots need an entity codec.");
+        }
+        this.snapshotting = snapshotting;
+    }
+
+    /**
+     * Get the store snapshots are kept in.
+     *
+     * @return The store set on this data source, or by default the one in the application's files directory.
+     */
+    public SnapshotStore getSnapshotStore()
+    {
+        if (snapshotStore != null) {
+            return snapshotStore;
+        }
+        return SnapshotStore.open(new File(getFilesDir(), "mva-snapshots"));
+    }
+
+    /**
+     * Set the store snapshots are kept in.
+     *
+     * @param snapshotStore The store, or null for the default.
+     */
+    public void setSnapshotStore(SnapshotStore snapshotStore)
+    {
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Get the key the snapshot of this data sources entity is stored under.
+     *
+     * @return By default the name of the data source and its {@link #getCacheKey() cache key}, if it has one.
+     */
+    protected String getSnapshotKey()
+    {
+        Object key = getCacheKey();
+        return key == null ? getMetricsName() : getMetricsName() + "/" + key;
+    }
+
+    /**
+     * Get the version of the encoding produced by the {@link #getEntityCodec() entity codec}.
+     *
+     * @return The version of a {@link VersionedEntityCodec}, or 0 for any other codec.
+     */
+    public int getEntityCodecVersion()
+    {
+        EntityCodec<Entity> codec = getEntityCodec();
+        return codec instanceof VersionedEntityCodec ? ((VersionedEntityCodec<Entity>) codec).getVersion() : 0;
+    }
+
+    /**
+     * Decode an entity with the {@link #getEntityCodec() entity codec}, migrating it if it was encoded by another
+     * version of a {@link VersionedEntityCodec}.
+     *
+     * @param bytes   The encoded entity.
+     * @param version The version of the codec that encoded it.
+     * @return The entity, or null if it was encoded by another version of a codec without versions.
+     */
+    public Entity decodeEntity(byte[] bytes, int version) throws IOException
+    {
+        EntityCodec<Entity> codec = getEntityCodec();
+        if (version == getEntityCodecVersion()) {
+            return codec.decode(bytes);
+        }
+        if (codec instanceof VersionedEntityCodec) {
+            return ((VersionedEntityCodec<Entity>) codec).decode(bytes, version);
+        }
+        return null;
+    }
+
+    private Entity readSnapshot()
+    {
+        try {
+            SnapshotStore.Snapshot snapshot = getSnapshotStore().read(getSnapshotKey());
+            if (snapshot == null) {
+                return null;
+            }
+            Entity entity = decodeEntity(snapshot.getBytes(), snapshot.getVersion());
+            if (entity != null) {
+                return entity;
+            }
+            getSnapshotStore().remove(getSnapshotKey());
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+            getSnapshotStore().remove(getSnapshotKey());
+        }
+        return null;
+    }
+
+    private void storeSnapshot()
+    {
+        Entity entity = getEntity();
+        if (!isSnapshotting() || entity == null) {
+            return;
+        }
+        try {
+            getSnapshotStore().write(getSnapshotKey(), getEntityCodecVersion(), getEntityCodec().encode(entity));
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private SaveJournal getJournal()
+    {
+        return SaveJournal.open(new File(getFilesDir(), "mva-" + getClass().getName() + ".journal"));
+    }
+
+    private Operation saveBehind()
+    {
+        if (saveUnchanged()) {
+            return null;
+        }
+        version.incrementAndGet();
+        final Entity saved = getEntity();
+        final ChangeSet changes = drainChanges();
+        byte[] encoded;
+        Throwable encodeFailure;
+        try {
+            encoded = getEntityCodec().encode(saved);
+            encodeFailure = null;
+        }
+        catch (Throwable e) {
+            e.printStackTrace();
+            encoded = null;
+            encodeFailure = e;
+        }
+        final byte[] bytes = encoded;
+        final Throwable cause = encodeFailure;
+
+        Operation operation = new Operation(true)
+        {
+            void perform()
+            {
+                boolean journaled = false;
+                if (bytes == null) {
+                    failWith(cause);
+                }
+                else {
+                    try {
+                        getJournal().append(bytes);
+                        journaled = true;
+                    }
+                    catch (IOException e) {
+                        e.printStackTrace();
+                        failWith(e);
+                    }
+                }
+                if (!journaled) {
+                    restoreChanges(saved, changes);
+                }
+                try {
+                    if (journaled) {
+                        getDataSaveSuccessCallback().execute();
+                    }
+                    else {
+                        getDataSaveFailureCallback().execute();
+                    }
+                }
+                catch (NullPointerException e) {
+                    // NOP No callback set.
+                }
+                if (journaled) {
+                    drainJournal(writeBehindRetryDelay);
+                }
+            }
+        };
+        operation.start();
+        return operation;
+    }
+
+    /**
+     * The most journaled entities saved before the drain lets the loads and saves queued behind it run.
+     */
+    private static final int JOURNAL_BATCH_SIZE = 8;
+
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    /**
+     * Save the entries of the journal in order, stopping at the first failure and trying again after the retry delay.
+     *
+     * Entries that can not be saved are moved to the dead letters so they do not hold up the entries behind them. The
+     * journal is drained in batches, each queued behind the work of the data source started while the one before ran,
+     * so a long drain does not hold up loads. At most one drain waits in the queue at a time.
+     */
+    private void drainJournal(final long retryDelay)
+    {
+        if (!drainQueued.compareAndSet(false, true)) {
+            return;
+        }
+        new Operation()
+        {
+            void perform()
+            {
+                // Entries journaled from now on need a drain of their own if this one has passed them.
+                drainQueued.set(false);
+                SaveJournal journal = getJournal();
+                if (!journal.beginDrain()) {
+                    return;
+                }
+                boolean failed = false;
+                boolean more = false;
+                try {
+                    int drained = 0;
+                    for (SaveJournal.Entry entry : journal.pending()) {
+                        if (isCancelled()) {
+                            return;
+                        }
+                        if (drained++ == JOURNAL_BATCH_SIZE) {
+                            more = true;
+                            break;
+                        }
+                        Entity entity = null;
+                        try {
+                            entity = getEntityCodec().decode(entry.getBytes());
+                            saveEntity(entity);
+                        }
+                        catch (Throwable e) {
+                            // An entry that can not be decoded will never save.
+                            boolean retry = entity != null
+                                            && isRetryable(e)
+                                            && !isCancelled()
+                                            && journal.failed(entry.getSequence()) < getWriteBehindMaxAttempts();
+                            if (retry) {
+                                failed = true;
+                                break;
+                            }
+                            e.printStackTrace();
+                            getDeadLetters().append(entry.getBytes());
+                            journal.acknowledge(entry.getSequence());
+                            deliverDeadLetter(entity, e);
+                            continue;
+                        }
+                        journal.acknowledge(entry.getSequence());
+                        EntitySaveCallback<Entity> entitySaveCallback = getEntitySaveCallback();
+                        if (entitySaveCallback != null) {
+                            entitySaveCallback.entitySaved(entity);
+                        }
+                    }
+                }
+                catch (IOException e) {
+                    e.printStackTrace();
+                    failed = true;
+                }
+                finally {
+                    journal.endDrain();
+                }
+                if (more && !isCancelled()) {
+                    drainJournal(retryDelay);
+                }
+                else if (failed && !isCancelled()) {
+                    scheduledDrain = DataSourceExecutor.schedule(new Runnable()
+                    {
+                        public void run()
+                        {
+                            drainJournal(Math.min(retryDelay * 2, writeBehindMaxRetryDelay));
+                        }
+                    }, getPriority(), retryDelay);
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * Report a journaled entity that was moved to the dead letters.
+     *
+     * @param entity The entity, or null if it could not be decoded.
+     * @param cause  The cause of the last failure.
+     */
+    private void deliverDeadLetter(Entity entity, Throwable cause)
+    {
+        EntitySaveCallback<Entity> entitySaveCallback = getEntitySaveCallback();
+        if (entitySaveCallback != null) {
+            entitySaveCallback.entityFailedToSave(entity, cause);
+        }
+        try {
+            getDataSaveFailureCallback().execute();
+        }
+        catch (NullPointerException e) {
+            // NOP No callback set.
+        }
+    }
+
+    /**
+     * Save the data source on the shared {@link DataSourceExecutor}.
+     *
+     * When data sources are saving a save indicator will take focus in the view. This indicator will go away on save success and failure.
+     *
+     * When saves are {@link #setWriteBehind(boolean) written behind} the entity is journaled and saved in the background.
+     *
+     * A {@link TrackedEntity} without changes is not saved, the save succeeds at once. Otherwise its changes are passed to
+     * {@link #saveEntity()} through {@link #getChanges()}, and kept for the next save if this one fails.
+     */
+    public void save()
+    {
+        startSave();
+    }
+
+    /**
+     * Save the data source and wait for the save to finish.
+     *
+     * The save takes the same path as {@link #save()}, so it is queued behind the other work of the data source, retried
+     * and guarded by the circuit breaker, and executes the save callbacks. The calling thread runs the save itself if no
+     * worker has started it yet, so a {@link CompositeDataSource} saving its children cannot starve them of threads.
+     *
+     * @return The cause of the failure or null if the save succeeded.
+     */
+    Throwable saveAndWait() throws InterruptedException
+    {
+        Operation operation = startSave();
+        if (operation == null) {
+            // Nothing had changed.
+            return null;
+        }
+        operation.await();
+        return operation.getCause();
+    }
+
+    /**
+     * @return The save operation or null if there was nothing to save.
+     */
+    private Operation startSave()
+    {
+        if (isWriteBehind()) {
+            return saveBehind();
+        }
+        if (saveUnchanged()) {
+            return null;
+        }
+        // Loads running now finished before the state being saved.
+        version.incrementAndGet();
+
+        post(ModelViewActivity.LOADING);
+
+        Operation operation = new Operation(true)
+        {
+            private Entity entity;
+            private ChangeSet changes;
+
+            void perform()
+            {
+                if (isFirstAttempt()) {
+                    entity = getEntity();
+                    changes = drainChanges();
+                }
+                savingChanges.set(changes);
+                boolean saved;
+                try {
+                    saved = doSaveEntity();
+                }
+                finally {
+                    savingChanges.remove();
+                }
+                if (!saved && retryLater(getFailure())) {
+                    return;
+                }
+                if (!saved) {
+                    failWith(getFailure());
+                    restoreChanges(entity, changes);
+                }
+                if (isCancelled()) {
+                    return;
+                }
+                if (!saved)
+                {
+                    try
+                    {
+                        post(ModelViewActivity.DONE_LOADING);
+                        getDataSaveFailureCallback().execute();
+                    }
+                    catch (NullPointerException e)
+                    {
+                        // NOP No callback set.
+                    }
+                }
+                else
+                {
+                    storeInCache();
+                    storeSnapshot();
+                    try {
+                        post(ModelViewActivity.DONE_LOADING);
+                        getDataSaveSuccessCallback().execute();
+                    }
+                    catch (NullPointerException e) {
+                        // NOP No callback set.
+                    }
+                }
+            }
+        };
+        operation.start();
+        return operation;
+    }
+
+    /**
+     * Succeed a save of a tracked entity that has not changed without saving it.
+     *
+     * @return True if the save was skipped.
+     */
+    private boolean saveUnchanged()
+    {
+        Entity current = getEntity();
+        if (!(current instanceof TrackedEntity) || !((TrackedEntity) current).getChanges().isEmpty()) {
+            return false;
+        }
+        try {
+            getDataSaveSuccessCallback().execute();
+        }
+        catch (NullPointerException e) {
+            // NOP No callback set.
+        }
+        return true;
+    }
+
+    private volatile Throwable failure;
+
+    /**
+     * Get what caused the most recent load or save of the data source to fail.
+     *
+     * @return The cause of the failure or null if the most recent load or save succeeded.
+     */
+    public Throwable getFailure()
+    {
+        return failure;
+    }
+
+    /**
+     * Perform one attempt at a load of a data sources entity.
+     *
+     * A failed attempt is retried by the operation that ran it, as the {@link #getRetryPolicy() retry policy} allows.
+     *
+     * @return True if the load succeeded, otherwise the cause is left in {@link #getFailure()}.
+     */
+    protected boolean doLoadEntity()
+    {
+        failure = loadEntityOnce();
+        return failure == null;
+    }
+
+    /**
+     * @return The cause of the failure or null if the load succeeded.
+     */
+    private Throwable loadEntityOnce()
+    {
+        CircuitBreaker breaker = getCircuitBreaker();
+        if (!breaker.allowRequest()) {
+            CircuitOpenException open = new CircuitOpenException(getMetricsName());
+            Metrics.failure(getMetricsName(), Phase.LOAD, open);
+            return open;
+        }
+
+        Phase phase = Phase.BEFORE_LOAD;
+        long start = System.nanoTime();
+        try
+        {
+            beforeEntityLoad();
+            start = timePhase(phase, start);
+            phase = Phase.LOAD;
+            loadEntity();
+            start = timePhase(phase, start);
+            phase = Phase.AFTER_LOAD;
+            afterEntityLoad();
+            timePhase(phase, start);
+            Operation operation = currentOperation.get();
+            if (operation != null && operation.staged) {
+                markClean(operation.stagedEntity);
+            }
+            breaker.recordSuccess();
+            return null;
+        }
+        catch (Throwable e)
+        {
+            recordFailure(breaker, e);
+            Metrics.failure(getMetricsName(), phase, e);
+            return e;
+        }
+    }
+
+    /**
+     * A load of part of the entity, such as a page of a {@link PagedDataSource}.
+     */
+    interface PartialLoad
+    {
+        void load() throws Throwable;
+    }
+
+    /**
+     * Perform one attempt at a load of part of the entity, guarded by the circuit breaker and recorded in
+     * {@link Metrics} as a load of the entity would be.
+     *
+     * @return The cause of the failure or null if the load succeeded.
+     */
+    Throwable loadOnce(PartialLoad load)
+    {
+        CircuitBreaker breaker = getCircuitBreaker();
+        if (!breaker.allowRequest()) {
+            CircuitOpenException open = new CircuitOpenException(getMetricsName());
+            Metrics.failure(getMetricsName(), Phase.LOAD, open);
+            return open;
+        }
+
+        long start = System.nanoTime();
+        try {
+            load.load();
+            timePhase(Phase.LOAD, start);
+            breaker.recordSuccess();
+            return null;
+        }
+        catch (Throwable e) {
+            recordFailure(breaker, e);
+            Metrics.failure(getMetricsName(), Phase.LOAD, e);
+            return e;
+        }
+    }
+
+    /**
+     * Record a failed attempt with the circuit breaker.
+     *
+     * An attempt that failed because it was cancelled or interrupted says nothing of the health of the data source, so
+     * it is not counted.
+     */
+    private void recordFailure(CircuitBreaker breaker, Throwable cause)
+    {
+        if (isCancelled()
+            || cause instanceof InterruptedException
+            || cause instanceof InterruptedIOException
+            || cause instanceof ClosedByInterruptException) {
+            breaker.recordAbandoned();
+        }
+        else {
+            breaker.recordFailure();
+        }
+    }
+
+    /**
+     * Get the name this data source is recorded under in {@link Metrics}.
+     *
+     * @return The registered name of the data source, or its class name if it was not produced by the factory.
+     */
+    protected String getMetricsName()
+    {
+        return getName() != null ? getName() : getClass().getName();
+    }
+
+    /**
+     * Record the time since a phase started.
+     *
+     * @return The time the next phase starts.
+     */
+    private long timePhase(Phase phase, long start)
+    {
+        long end = System.nanoTime();
+        Metrics.timing(getMetricsName(), phase, end - start);
+        return end;
+    }
+
+    /**
+     * Called before {@link com.scottbyrns.mva.data.BaseDataSource#loadEntity()} ()}
+     */
+    protected void beforeEntityLoad()
+    {
+    }
+
+    /**
+     * Called after {@link com.scottbyrns.mva.data.BaseDataSource#loadEntity()} ()}
+     */
+    protected void afterEntityLoad()
+    {
+    }
+
+    /**
+     * Perform a load of the data sources data.
+     */
+    protected abstract void loadEntity() throws Throwable;
+
+    /**
+     * Perform one attempt at a save of the data sources entity.
+     *
+     * A failed attempt is retried by the operation that ran it, as the {@link #getRetryPolicy() retry policy} allows.
+     *
+     * @return True if the save succeeded, otherwise the cause is left in {@link #getFailure()}.
+     */
+    private boolean doSaveEntity()
+    {
+        failure = saveEntityOnce();
+        return failure == null;
+    }
+
+    /**
+     * @return The cause of the failure or null if the save succeeded.
+     */
+    private Throwable saveEntityOnce()
+    {
+        CircuitBreaker breaker = getCircuitBreaker();
+        if (!breaker.allowRequest()) {
+            CircuitOpenException open = new CircuitOpenException(getMetricsName());
+            Metrics.failure(getMetricsName(), Phase.SAVE, open);
+            return open;
+        }
+
+        try
+        {
+            beforeEntityLoad();
+            long start = System.nanoTime();
+            saveEntity();
+            timePhase(Phase.SAVE, start);
+            afterEntityLoad();
+            breaker.recordSuccess();
+            return null;
+        }
+        catch (Throwable e)
+        {
+            e.printStackTrace();
+            recordFailure(breaker, e);
+            Metrics.failure(getMetricsName(), Phase.SAVE, e);
+            return e;
+        }
+    }
+
+    /**
+     * Called before {@link com.scottbyrns.mva.data.BaseDataSource#saveEntity()}
+     */
+    protected void beforeEntitySave()
+    {
+    }
+
+    /**
+     * Called after {@link com.scottbyrns.mva.data.BaseDataSource#saveEntity()}
+     */
+    protected void afterEntitySave()
+    {
+    }
+
+    /**
+     * Perform a save of the data sources data.
+     *
+     * A {@link TrackedEntity} may be saved in part, by saving only the {@link #getChanges() changes}.
+     */
+    protected abstract void saveEntity() throws Throwable;
+
+    /**
+     * Perform a save of an entity other than the current one.
+     *
+     * By default {@link #saveEntity()} is called with {@link #getEntity()} returning the entity on the calling thread
+     * only, the entity of the data source is left untouched. Override this to save the entity directly.
+     *
+     * @param entity The entity to save.
+     */
+    protected void saveEntity(Entity entity) throws Throwable
+    {
+        SavingEntity previous = savingEntity.get();
+        ChangeSet changes = savingChanges.get();
+        savingEntity.set(new SavingEntity(entity));
+        savingChanges.remove();
+        savingEntities.incrementAndGet();
+        try {
+            saveEntity();
+        }
+        finally {
+            savingEntities.decrementAndGet();
+            if (previous == null) {
+                savingEntity.remove();
+            }
+            else {
+                savingEntity.set(previous);
+            }
+            if (changes != null) {
+                savingChanges.set(changes);
+            }
+        }
+    }
+
+    /**
+     * Perform a save of a batch of entities.
+     *
+     * By default each entity is saved through {@link #saveEntity(Object)} in turn. Override this to save the batch in
+     * one round trip. Throwing fails every entity in the batch.
+     *
+     * @param entities The entities to save.
+     * @return The entities that failed to save and the reason they failed. Entities that are not in the map saved.
+     */
+    protected Map<Entity, Throwable> saveEntities(Collection<Entity> entities) throws Throwable
+    {
+        Map<Entity, Throwable> failures = new IdentityHashMap<Entity, Throwable>();
+        for (Entity entity : entities) {
+            try {
+                saveEntity(entity);
+            }
+            catch (Throwable e) {
+                e.printStackTrace();
+                failures.put(entity, e);
+            }
+        }
+        return failures;
+    }
+
+    private final LinkedList<Operation> serialQueue = new LinkedList<Operation>();
+    private Operation serialRunning;
+
+    /**
+     * Begin holding the entities set on the current thread until the load running on it commits.
+     */
+    private void beginStaging()
+    {
+        Operation operation = currentOperation.get();
+        if (operation.isFirstAttempt()) {
+            // Changes made while a failed attempt waited to be retried are newer than the load.
+            operation.baseVersion = version.get();
+        }
+        operation.staged = false;
+        operation.stagedEntity = null;
+        operation.staging = true;
+        stagingLoads.incrementAndGet();
+    }
+
+    private void endStaging()
+    {
+        currentOperation.get().staging = false;
+        stagingLoads.decrementAndGet();
+    }
+
+    /**
+     * A load or save of this data source running on the shared {@link DataSourceExecutor}.
+     *
+     * Operations of a data source are queued behind each other, and each is submitted to the executor once the one
+     * before it has finished or been cancelled.
+     */
+    abstract class Operation implements Runnable
+    {
+        /**
+         * Saves are never cancelled, see {@link BaseDataSource#cancel()}.
+         */
+        final boolean save;
+        volatile boolean detached;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+        private long queuedAt;
+        private int attempt;
+        private long retryDelay = -1;
+        private volatile Throwable cause;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private boolean staging;
+        private boolean staged;
+        private Entity stagedEntity;
+        private long baseVersion;
+
+        Operation()
+        {
+            this(false);
+        }
+
+        Operation(boolean save)
+        {
+            this.save = save;
+        }
+
+        void start()
+        {
+            synchronized (operations) {
+                operations.add(this);
+            }
+            Metrics.inFlight(getMetricsName(), 1);
+            queuedAt = System.nanoTime();
+            synchronized (serialQueue) {
+                if (serialRunning != null) {
+                    serialQueue.add(this);
+                    return;
+                }
+                serialRunning = this;
+            }
+            submit();
+        }
+
+        private void submit()
+        {
+            future = DataSourceExecutor.submit(this, getPriority());
+            if (cancelled) {
+                future.cancel(true);
+            }
+        }
+
+        void cancel()
+        {
+            cancelled = true;
+            synchronized (operations) {
+                operations.remove(this);
+            }
+            Future<?> current = future;
+            if (current != null) {
+                current.cancel(true);
+            }
+            finish();
+            release();
+        }
+
+        private void finish()
+        {
+            if (finished.compareAndSet(false, true)) {
+                Metrics.inFlight(getMetricsName(), -1);
+                done.countDown();
+            }
+        }
+
+        /**
+         * Wait for the operation to finish, running it on the calling thread if it is waiting for a worker.
+         */
+        void await() throws InterruptedException
+        {
+            while (!done.await(10, TimeUnit.MILLISECONDS)) {
+                Future<?> current = future;
+                // A scheduled retry must wait out its delay.
+                if (current instanceof RunnableFuture && !(current instanceof ScheduledFuture)) {
+                    ((RunnableFuture<?>) current).run();
+                }
+            }
+        }
+
+        void failWith(Throwable cause)
+        {
+            this.cause = cause;
+        }
+
+        /**
+         * @return What caused the operation to fail or null if it succeeded.
+         */
+        Throwable getCause()
+        {
+            return cause;
+        }
+
+        /**
+         * Let the next operation of the data source run.
+         */
+        private void release()
+        {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            Operation next;
+            synchronized (serialQueue) {
+                if (serialRunning != this) {
+                    // Cancelled while still queued.
+                    serialQueue.remove(this);
+                    return;
+                }
+                next = serialQueue.poll();
+                serialRunning = next;
+            }
+            if (next != null) {
+                next.submit();
+            }
+        }
+
+        boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        boolean isFirstAttempt()
+        {
+            return attempt == 1;
+        }
+
+        /**
+         * Ask for {@link #perform()} to run again once the backoff of the {@link #getRetryPolicy() retry policy} has
+         * passed. The operation keeps its place at the head of the queue of the data source while it waits, without
+         * holding a thread of the executor.
+         *
+         * Failures of an open circuit breaker and of cancelled operations are not retried.
+         *
+         * @param cause The cause of the failed attempt.
+         * @return True if the attempt will be retried, {@link #perform()} should return at once.
+         */
+        boolean retryLater(Throwable cause)
+        {
+            RetryPolicy policy = getRetryPolicy();
+            if (cause instanceof CircuitOpenException || !policy.shouldRetry(attempt, cause) || isCancelled()) {
+                return false;
+            }
+            retryDelay = policy.getDelay(attempt);
+            return true;
+        }
+
+        public final void run()
+        {
+            currentOperation.set(this);
+            Metrics.timing(getMetricsName(), Phase.QUEUE_WAIT, System.nanoTime() - queuedAt);
+            attempt++;
+            retryDelay = -1;
+            try {
+                if (!cancelled) {
+                    perform();
+                }
+            }
+            finally {
+                currentOperation.remove();
+                if (retryDelay >= 0 && !cancelled) {
+                    // Submitted from the timer so the future of the retry can be run by a waiting thread.
+                    future = DataSourceExecutor.delay(new Runnable()
+                    {
+                        public void run()
+                        {
+                            queuedAt = System.nanoTime();
+                            submit();
+                        }
+                    }, retryDelay);
+                    if (cancelled) {
+                        future.cancel(false);
+                    }
+                }
+                else {
+                    synchronized (operations) {
+                        operations.remove(this);
+                    }
+                    finish();
+                    release();
+                }
+            }
+        }
+
+        abstract void perform();
+    }
 }
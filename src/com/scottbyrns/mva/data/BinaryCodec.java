@@ -0,0 +1,143 @@
+package com.scottbyrns.mva.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact binary entity codec driven by a hand written schema.
+ * <p/>
+ * Subclasses write the fields of an entity in a fixed order in {@link #write(Object, DataOutput)} and read them back
+ * in the same order in {@link #read(DataInput, int)}. There are no field names, type tags or reflection in the
+ * encoding, so it is smaller and faster than {@link java.io.Serializable}. Whenever the order or the fields change the
+ * {@link #getVersion() version} must be increased, and {@link #read(DataInput, int)} is given the version the bytes
+ * were written with so older bytes can still be read.
+ * <p/>
+ * Nested entities are written by calling another codec's {@link #write(Object, DataOutput)} and read by its
+ * {@link #read(DataInput, int)}.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 5:00 PM
+ */
+public abstract class BinaryCodec<Entity> implements VersionedEntityCodec<Entity>
+{
+    private final int version;
+
+    /**
+     * @param version The version of the schema.
+     */
+    protected BinaryCodec(int version)
+    {
+        this.version = version;
+    }
+
+    public int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Write the fields of an entity.
+     *
+     * @param entity The entity, never null.
+     * @param output The output to write to.
+     */
+    public abstract void write(Entity entity, DataOutput output) throws IOException;
+
+    /**
+     * Read the fields of an entity.
+     *
+     * @param input   The input to read from.
+     * @param version The version of the schema the fields were written with.
+     * @return The entity.
+     */
+    public abstract Entity read(DataInput input, int version) throws IOException;
+
+    public byte[] encode(Entity entity) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream output = new DataOutputStream(bytes);
+        write(entity, output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    public Entity decode(byte[] bytes) throws IOException
+    {
+        return decode(bytes, version);
+    }
+
+    public Entity decode(byte[] bytes, int version) throws IOException
+    {
+        return read(new DataInputStream(new ByteArrayInputStream(bytes)), version);
+    }
+
+    /**
+     * Write a string that may be null.
+     */
+    protected static void writeString(DataOutput output, String value) throws IOException
+    {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    /**
+     * Read a string written by {@link #writeString(DataOutput, String)}.
+     */
+    protected static String readString(DataInput input) throws IOException
+    {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * Write a list of entities with another codec, the list may be null.
+     */
+    protected static <Item> void writeList(DataOutput output, List<Item> items, BinaryCodec<Item> codec) throws IOException
+    {
+        if (items == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(items.size());
+        for (Item item : items) {
+            codec.write(item, output);
+        }
+    }
+
+    /**
+     * Read a list written by {@link #writeList(DataOutput, List, BinaryCodec)}.
+     *
+     * @param version The version of the item codec's schema the items were written with.
+     */
+    protected static <Item> List<Item> readList(DataInput input, BinaryCodec<Item> codec, int version) throws IOException
+    {
+        int size = input.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<Item> items = new ArrayList<Item>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(codec.read(input, version));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,223 @@
+package com.scottbyrns.mva.data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields and collection items of a {@link TrackedEntity} that have changed since it was last loaded or saved.
+ * <p/>
+ * Fields are named by the entity, collections by the name of the field holding them. A change set may be marked from
+ * any thread.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 6:45 PM
+ */
+public class ChangeSet
+{
+    private boolean all;
+    private final Set<String> fields = new LinkedHashSet<String>();
+    private final Map<String, Set<Object>> changedItems = new LinkedHashMap<String, Set<Object>>();
+    private final Map<String, Set<Object>> removedItems = new LinkedHashMap<String, Set<Object>>();
+
+    /**
+     * Mark a field changed.
+     *
+     * @param field The name of the field.
+     */
+    public synchronized void markField(String field)
+    {
+        fields.add(field);
+    }
+
+    /**
+     * Mark an item of a collection added or changed.
+     *
+     * @param collection The name of the field holding the collection.
+     * @param item       The item.
+     */
+    public synchronized void markItem(String collection, Object item)
+    {
+        items(removedItems, collection).remove(item);
+        items(changedItems, collection).add(item);
+    }
+
+    /**
+     * Mark an item of a collection removed.
+     *
+     * @param collection The name of the field holding the collection.
+     * @param item       The item.
+     */
+    public synchronized void markRemoved(String collection, Object item)
+    {
+        items(changedItems, collection).remove(item);
+        items(removedItems, collection).add(item);
+    }
+
+    /**
+     * Mark the whole entity changed.
+     */
+    public synchronized void markAll()
+    {
+        all = true;
+    }
+
+    /**
+     * Check if the whole entity has changed, in which case it should be saved in full.
+     *
+     * @return True if the whole entity has changed.
+     */
+    public synchronized boolean isAll()
+    {
+        return all;
+    }
+
+    /**
+     * Check if nothing has changed.
+     *
+     * @return True if nothing has changed.
+     */
+    public synchronized boolean isEmpty()
+    {
+        return !all && fields.isEmpty() && isEmpty(changedItems) && isEmpty(removedItems);
+    }
+
+    /**
+     * Check if a field, or an item of the collection it holds, has changed.
+     *
+     * @param field The name of the field.
+     * @return True if the field has changed.
+     */
+    public synchronized boolean isChanged(String field)
+    {
+        return all
+               || fields.contains(field)
+               || !items(changedItems, field).isEmpty()
+               || !items(removedItems, field).isEmpty();
+    }
+
+    /**
+     * Get the fields that have changed.
+     *
+     * @return The names of the changed fields in the order they were first changed.
+     */
+    public synchronized Set<String> getFields()
+    {
+        return Collections.unmodifiableSet(new LinkedHashSet<String>(fields));
+    }
+
+    /**
+     * Get the items of a collection that were added or changed.
+     *
+     * @param collection The name of the field holding the collection.
+     * @return The added and changed items.
+     */
+    public synchronized Set<Object> getItems(String collection)
+    {
+        return Collections.unmodifiableSet(new LinkedHashSet<Object>(items(changedItems, collection)));
+    }
+
+    /**
+     * Get the items of a collection that were removed.
+     *
+     * @param collection The name of the field holding the collection.
+     * @return The removed items.
+     */
+    public synchronized Set<Object> getRemovedItems(String collection)
+    {
+        return Collections.unmodifiableSet(new LinkedHashSet<Object>(items(removedItems, collection)));
+    }
+
+    /**
+     * Forget every change.
+     */
+    public synchronized void clear()
+    {
+        all = false;
+        fields.clear();
+        changedItems.clear();
+        removedItems.clear();
+    }
+
+    /**
+     * Take the changes made so far, leaving this change set empty to record the changes made while they are saved.
+     *
+     * @return A copy of the changes.
+     */
+    synchronized ChangeSet drain()
+    {
+        ChangeSet drained = new ChangeSet();
+        drained.merge(this);
+        clear();
+        return drained;
+    }
+
+    /**
+     * Add changes back, such as those of a save that failed.
+     *
+     * @param changes The changes to add.
+     */
+    synchronized void merge(ChangeSet changes)
+    {
+        synchronized (changes) {
+            all |= changes.all;
+            fields.addAll(changes.fields);
+            for (Map.Entry<String, Set<Object>> entry : changes.changedItems.entrySet()) {
+                for (Object item : entry.getValue()) {
+                    if (!items(removedItems, entry.getKey()).contains(item)) {
+                        items(changedItems, entry.getKey()).add(item);
+                    }
+                }
+            }
+            for (Map.Entry<String, Set<Object>> entry : changes.removedItems.entrySet()) {
+                for (Object item : entry.getValue()) {
+                    if (!items(changedItems, entry.getKey()).contains(item)) {
+                        items(removedItems, entry.getKey()).add(item);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        if (all) {
+            return "ChangeSet[all]";
+        }
+        return "ChangeSet[fields=" + fields + ", items=" + changedItems + ", removed=" + removedItems + "]";
+    }
+
+    private static Set<Object> items(Map<String, Set<Object>> items, String collection)
+    {
+        Set<Object> set = items.get(collection);
+        if (set == null) {
+            set = new LinkedHashSet<Object>();
+            items.put(collection, set);
+        }
+        return set;
+    }
+
+    private static boolean isEmpty(Map<String, Set<Object>> items)
+    {
+        for (Set<Object> set : items.values()) {
+            if (!set.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,186 @@
+package com.scottbyrns.mva.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fails loads and saves fast while the backend of a data source is down.
+ * <p/>
+ * There is one breaker per data source name, shared by every data source produced under it. A closed breaker lets
+ * every attempt through and opens after a run of consecutive failures. An open breaker fails attempts with a
+ * {@link CircuitOpenException} without running them until the open time has passed, then lets a single trial attempt
+ * through. The trial closes the breaker if it succeeds and opens it again if it fails.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 4:00 PM
+ */
+public class CircuitBreaker
+{
+    /**
+     * The default number of consecutive failures that opens a breaker.
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /**
+     * The default time in milliseconds a breaker stays open before a trial attempt.
+     */
+    public static final long DEFAULT_OPEN_TIME = 30000;
+
+    public enum State
+    {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final Map<String, CircuitBreaker> breakers = new HashMap<String, CircuitBreaker>();
+
+    private final String name;
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private long openTime = DEFAULT_OPEN_TIME;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    private CircuitBreaker(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Get the breaker of a data source name, creating it on first use.
+     *
+     * @param dataSourceName The name of the data source.
+     * @return The breaker.
+     */
+    public static synchronized CircuitBreaker forName(String dataSourceName)
+    {
+        CircuitBreaker breaker = breakers.get(dataSourceName);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(dataSourceName);
+            breakers.put(dataSourceName, breaker);
+        }
+        return breaker;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public synchronized int getFailureThreshold()
+    {
+        return failureThreshold;
+    }
+
+    /**
+     * Set the number of consecutive failures that opens the breaker.
+     *
+     * @param failureThreshold The number of failures, at least one.
+     */
+    public synchronized void setFailureThreshold(int failureThreshold)
+    {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("The failure threshold must be at least one.");
+        }
+        this.failureThreshold = failureThreshold;
+    }
+
+    public synchronized long getOpenTime()
+    {
+        return openTime;
+    }
+
+    /**
+     * Set the time the breaker stays open before a trial attempt.
+     *
+     * @param openTime The time in milliseconds.
+     */
+    public synchronized void setOpenTime(long openTime)
+    {
+        this.openTime = openTime;
+    }
+
+    public synchronized State getState()
+    {
+        return state;
+    }
+
+    /**
+     * Check if an attempt may run, moving an open breaker whose open time has passed to a trial.
+     *
+     * @return True if the attempt may run.
+     */
+    public synchronized boolean allowRequest()
+    {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedAt) >= openTime) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // A trial is already running.
+                return false;
+        }
+    }
+
+    /**
+     * An attempt succeeded.
+     */
+    public synchronized void recordSuccess()
+    {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * An attempt failed.
+     */
+    public synchronized void recordFailure()
+    {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * An attempt was given up before it had an outcome, for example because it was cancelled.
+     *
+     * A trial given up this way is not counted, the next attempt runs the trial instead.
+     */
+    public synchronized void recordAbandoned()
+    {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(openTime);
+        }
+    }
+
+    /**
+     * Close the breaker and forget its failures.
+     */
+    public synchronized void reset()
+    {
+        failures = 0;
+        state = State.CLOSED;
+    }
+}
@@ -0,0 +1,236 @@
+package com.scottbyrns.mva.data;
+
+import android.app.Activity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RunnableFuture;
+
+/**
+ * A data source made of several child data sources that are loaded in parallel.
+ * <p/>
+ * Each child is added under a key with {@link #addChild(String, BaseDataSource, boolean)}, usually from the constructor
+ * of a subclass. When the composite loads, every child is loaded on the shared {@link DataSourceExecutor} and the
+ * entity of the composite becomes a map from each key to the entity of the child that loaded under it. The load
+ * therefore takes as long as the slowest child rather than the sum of them.
+ * <p/>
+ * The composite fails to load only when a required child fails. Optional children that fail are left out of the map
+ * and their causes are reported by {@link #getChildFailures()}.
+ * <p/>
+ * Loading and saving the composite load and save every child in parallel through the {@link #load()} and
+ * {@link #save()} pipelines of the child, so each child load and save is queued, retried and guarded by its circuit
+ * breaker as it would be on its own, and a child load is served from the cache of the child and committed by its rules.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 10:20 AM
+ */
+public class CompositeDataSource extends BaseDataSource<Map<String, Object>>
+{
+    private final List<Child> children = new ArrayList<Child>();
+    private volatile Map<String, Throwable> childFailures = Collections.emptyMap();
+
+    /**
+     * Create a new composite data source.
+     *
+     * @param context The activity context is used for interacting with the Android framework.
+     */
+    public CompositeDataSource(Activity context)
+    {
+        super(context);
+    }
+
+    /**
+     * Add a child data source.
+     *
+     * @param key The key the entity of the child is merged under.
+     * @param child The child data source.
+     * @param required True if the composite fails to load when the child fails to load.
+     */
+    public synchronized void addChild(String key, BaseDataSource<?> child, boolean required)
+    {
+        children.add(new Child(key, child, required));
+    }
+
+    /**
+     * Get a child data source.
+     *
+     * @param key The key the child was added under.
+     * @return The child data source or null if there is none.
+     */
+    public synchronized BaseDataSource<?> getChild(String key)
+    {
+        for (Child child : children) {
+            if (child.key.equals(key)) {
+                return child.dataSource;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the children that failed in the most recent load or save, and why.
+     *
+     * @return A map from the key of each failed child to the cause of its failure.
+     */
+    public Map<String, Throwable> getChildFailures()
+    {
+        return childFailures;
+    }
+
+    @Override
+    public void setContext(Activity context)
+    {
+        super.setContext(context);
+        synchronized (this) {
+            for (Child child : children) {
+                child.dataSource.setContext(context);
+            }
+        }
+    }
+
+    @Override
+    protected void loadEntity() throws Throwable
+    {
+        Map<String, Object> merged = new LinkedHashMap<String, Object>();
+        Map<String, Throwable> failures = fanOut(new ChildTask()
+        {
+            public Throwable run(BaseDataSource<?> child)
+            {
+                try {
+                    return child.loadAndWait();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+            }
+        }, merged);
+        childFailures = failures;
+        setEntity(merged);
+        throwRequiredFailure(failures, "load");
+    }
+
+    @Override
+    protected void saveEntity() throws Throwable
+    {
+        Map<String, Throwable> failures = fanOut(new ChildTask()
+        {
+            public Throwable run(BaseDataSource<?> child)
+            {
+                try {
+                    return child.saveAndWait();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+            }
+        }, null);
+        childFailures = failures;
+        throwRequiredFailure(failures, "save");
+    }
+
+    /**
+     * Run a task for every child in parallel and wait for all of them.
+     * <p/>
+     * The waiting thread runs any child task that no worker has started yet, so the composite cannot starve its own
+     * children of threads when the pool is small.
+     */
+    private Map<String, Throwable> fanOut(final ChildTask task, Map<String, Object> entities) throws InterruptedException
+    {
+        List<Child> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<Child>(children);
+        }
+
+        List<RunnableFuture<Throwable>> futures = new ArrayList<RunnableFuture<Throwable>>(snapshot.size());
+        for (final Child child : snapshot) {
+            futures.add(DataSourceExecutor.submit(new Callable<Throwable>()
+            {
+                public Throwable call()
+                {
+                    return task.run(child.dataSource);
+                }
+            }, getPriority()));
+        }
+
+        Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+        try {
+            for (int i = 0; i < snapshot.size(); i++) {
+                Child child = snapshot.get(i);
+                RunnableFuture<Throwable> future = futures.get(i);
+                future.run();
+
+                Throwable cause;
+                try {
+                    cause = future.get();
+                }
+                catch (ExecutionException e) {
+                    cause = e.getCause();
+                }
+                if (cause != null) {
+                    failures.put(child.key, cause);
+                }
+                else if (entities != null) {
+                    entities.put(child.key, child.dataSource.getEntity());
+                }
+            }
+        }
+        finally {
+            for (RunnableFuture<Throwable> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return failures;
+    }
+
+    private void throwRequiredFailure(Map<String, Throwable> failures, String operation) throws Exception
+    {
+        synchronized (this) {
+            for (Child child : children) {
+                if (child.required && failures.containsKey(child.key)) {
+                    throw new Exception("Required data source \"" + child.key + "\" failed to " + operation + ".",
+                                        failures.get(child.key));
+                }
+            }
+        }
+    }
+
+    private interface ChildTask
+    {
+        /**
+         * @return The cause of the failure of the child or null if it succeeded.
+         */
+        Throwable run(BaseDataSource<?> child);
+    }
+
+    private static class Child
+    {
+        private final String key;
+        private final BaseDataSource<?> dataSource;
+        private final boolean required;
+
+        Child(String key, BaseDataSource<?> dataSource, boolean required)
+        {
+            this.key = key;
+            this.dataSource = dataSource;
+            this.required = required;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.scottbyrns.mva.data;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The shared pool of worker threads that data sources load and save on.
+ * <p/>
+ * All data sources share one bounded pool rather than starting a thread per call. Work is taken from the queue by
+ * priority first and submission order second so a high priority data source is not stuck behind a list of low
+ * priority ones.
+ * <p/>
+ * The pool may be resized with {@link #setPoolSize(int)} or replaced entirely with {@link #setExecutor(ExecutorService)}.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 9:12 AM
+ */
+public class DataSourceExecutor
+{
+    /**
+     * The priority given to data sources that do not ask for one.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /**
+     * The default number of worker threads.
+     */
+    public static final int DEFAULT_POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private static ExecutorService executor;
+    private static int poolSize = DEFAULT_POOL_SIZE;
+
+    /**
+     * Get the executor data source work is submitted to, creating the default pool on first use.
+     *
+     * @return The shared executor.
+     */
+    public static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null) {
+            executor = createDefaultExecutor(poolSize);
+        }
+        return executor;
+    }
+
+    /**
+     * Replace the shared executor.
+     * <p/>
+     * The previous executor is shut down once its queued work has finished. Passing null restores the default pool on
+     * next use.
+     *
+     * @param executor The executor to run data source work on.
+     */
+    public static synchronized void setExecutor(ExecutorService executor)
+    {
+        ExecutorService previous = DataSourceExecutor.executor;
+        DataSourceExecutor.executor = executor;
+        if (previous != null && previous != executor) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Get the number of worker threads in the default pool.
+     *
+     * @return The number of worker threads.
+     */
+    public static synchronized int getPoolSize()
+    {
+        return poolSize;
+    }
+
+    /**
+     * Set the number of worker threads in the default pool.
+     * <p/>
+     * This has no effect on an executor supplied through {@link #setExecutor(ExecutorService)}.
+     *
+     * @param poolSize The number of worker threads, at least one.
+     */
+    public static synchronized void setPoolSize(int poolSize)
+    {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least one.");
+        }
+        DataSourceExecutor.poolSize = poolSize;
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            if (poolSize > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(poolSize);
+                pool.setCorePoolSize(poolSize);
+            }
+            else {
+                pool.setCorePoolSize(poolSize);
+                pool.setMaximumPoolSize(poolSize);
+            }
+        }
+    }
+
+    /**
+     * Submit work to the shared executor.
+     *
+     * @param task     The work to run.
+     * @param priority Higher priorities are run first.
+     *
+     * @return The future of the submitted work.
+     */
+    public static RunnableFuture<Void> submit(Runnable task, int priority)
+    {
+        PrioritizedTask<Void> future = new PrioritizedTask<Void>(task, null, priority);
+        getExecutor().execute(future);
+        return future;
+    }
+
+    /**
+     * Submit work that produces a result to the shared executor.
+     *
+     * @param task     The work to run.
+     * @param priority Higher priorities are run first.
+     *
+     * @return The future of the submitted work.
+     */
+    public static <T> RunnableFuture<T> submit(Callable<T> task, int priority)
+    {
+        PrioritizedTask<T> future = new PrioritizedTask<T>(task, priority);
+        getExecutor().execute(future);
+        return future;
+    }
+
+    private static ScheduledExecutorService timer;
+
+    /**
+     * Submit work to the shared executor after a delay.
+     *
+     * @param task        The work to run.
+     * @param priority    Higher priorities are run first.
+     * @param delayMillis The time in milliseconds to wait before submitting the work.
+     *
+     * @return The future of the delayed submission, cancelling it before the delay has passed drops the work.
+     */
+    public static ScheduledFuture<?> schedule(final Runnable task, final int priority, long delayMillis)
+    {
+        return getTimer().schedule(new Runnable()
+        {
+            public void run()
+            {
+                submit(task, priority);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run a short task on the timer thread after a delay, for tasks that only hand work to the executor.
+     *
+     * @param task        The task to run.
+     * @param delayMillis The time in milliseconds to wait before running the task.
+     *
+     * @return The future of the delayed task.
+     */
+    static ScheduledFuture<?> delay(Runnable task, long delayMillis)
+    {
+        return getTimer().schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized ScheduledExecutorService getTimer()
+    {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "DataSource timer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return timer;
+    }
+
+    private static ExecutorService createDefaultExecutor(int size)
+    {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size,
+                                                         size,
+                                                         30,
+                                                         TimeUnit.SECONDS,
+                                                         new PriorityBlockingQueue<Runnable>(),
+                                                         new DataSourceThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * A future that orders itself in the work queue by priority and then by submission order.
+     */
+    private static class PrioritizedTask<T> extends FutureTask<T> implements Comparable<PrioritizedTask<?>>
+    {
+        private final int priority;
+        private final long order = sequence.getAndIncrement();
+
+        PrioritizedTask(Runnable runnable, T result, int priority)
+        {
+            super(runnable, result);
+            this.priority = priority;
+        }
+
+        PrioritizedTask(Callable<T> callable, int priority)
+        {
+            super(callable);
+            this.priority = priority;
+        }
+
+        public int compareTo(PrioritizedTask<?> other)
+        {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            return order < other.order ? -1 : (order == other.order ? 0 : 1);
+        }
+    }
+
+    private static class DataSourceThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "DataSource #" + count.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import android.app.Activity;
 import java.lang.reflect.Constructor;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Copyright (C) 2012 by Scott Byrns
@@ -25,31 +27,59 @@ public class DataSourceFactory
 {
 
 
-    private static Map registeredDataSources = new HashMap<String, Class>();
+    private static Map<String, DataSourceProducer> registeredDataSources = new HashMap<String, DataSourceProducer>();
+    private static Map<String, RetryPolicy> retryPolicies = new HashMap<String, RetryPolicy>();
 
     /**
-     * Register a view layer.
+     * Register a data source class.
      *
-     * @param viewName The name of the view.
-     * @param viewLayer The view layer class.
+     * The constructor taking an {@link Activity} is resolved once here rather than each time the data source is produced.
+     *
+     * @param dataSourceName The name of the data source.
+     * @param dataSource The data source class.
      */
-   	public static void registerDataSource(String viewName, Class viewLayer)
+   	public static void registerDataSource(String dataSourceName, Class dataSource)
    	{
-   		registeredDataSources.put(viewName,
-                               viewLayer);
+        try {
+            registerDataSource(dataSourceName,
+                               new ConstructorProducer(dataSource.getConstructor(new Class[] {Activity.class})));
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(dataSource.getName() + " has no public constructor taking an Activity.", e);
+        }
    	}
 
-   	private static DataSource createDataSource(String viewName, Activity context)
+    /**
+     * Register a producer of a data source.
+     *
+     * @param dataSourceName The name of the data source.
+     * @param producer The producer creating the data source.
+     */
+    public static void registerDataSource(String dataSourceName, DataSourceProducer producer)
+    {
+        registeredDataSources.put(dataSourceName,
+                                  producer);
+    }
+
+    /**
+     * Register how failed loads and saves of a data source are retried, in place of the policy its class declares.
+     *
+     * @param dataSourceName The name of the data source.
+     * @param retryPolicy The retry policy, or null for the one its class declares.
+     */
+    public static void registerRetryPolicy(String dataSourceName, RetryPolicy retryPolicy)
+    {
+        retryPolicies.put(dataSourceName,
+                          retryPolicy);
+    }
+
+   	private static DataSource createDataSource(String dataSourceName, Activity context)
    	{
-   		Class productClass = (Class) registeredDataSources.get(viewName);
-        try {
-            Constructor viewConstructor = productClass.getConstructor(new Class[] {Activity.class});
-            return (DataSource)viewConstructor.newInstance(context);
-        }
-        catch (Throwable e) {
-            e.printStackTrace();
+   		DataSourceProducer producer = registeredDataSources.get(dataSourceName);
+        if (producer == null) {
             return null;
         }
+        return producer.produce(context);
    	}
 
     /**
@@ -59,7 +89,145 @@ public class DataSourceFactory
      * @return The specified data source.
      */
     public static DataSource produce(String dataSource, Activity context) {
-        return createDataSource(dataSource, context);
+        DataSource product = createDataSource(dataSource, context);
+        if (product instanceof BaseDataSource) {
+            ((BaseDataSource) product).setName(dataSource);
+            ((BaseDataSource) product).setRetryPolicy(retryPolicies.get(dataSource));
+        }
+        return product;
+    }
+
+    /**
+     * The name of the {@link android.content.Intent} extra holding the token of a prefetched data source.
+     */
+    public static final String PREFETCH_TOKEN = "com.scottbyrns.mva.PREFETCH_TOKEN";
+
+    private static final Map<String, Prefetched> prefetchedDataSources = new HashMap<String, Prefetched>();
+    private static final AtomicLong prefetchTokens = new AtomicLong();
+    private static volatile long prefetchTimeToLive = 30 * 1000;
+
+    /**
+     * Set how long a prefetched data source waits to be claimed before it is cancelled and dropped.
+     *
+     * @param timeToLive The time to live in milliseconds.
+     */
+    public static void setPrefetchTimeToLive(long timeToLive)
+    {
+        prefetchTimeToLive = timeToLive;
+    }
+
+    /**
+     * Produce a data source and start loading it before the activity that shows it is created.
+     *
+     * Call this from the current screen, for example when a list item is pressed, just before starting the activity
+     * whose {@link com.scottbyrns.mva.reflection.ModelViewConfiguration} names the data source, and put the returned
+     * token in the intent starting it as the {@link #PREFETCH_TOKEN} extra. That activity picks up the prefetched data
+     * source through {@link #claim(String, Activity)} instead of producing and loading a new one.
+     *
+     * The prefetched data source is constructed with a null context and holds no activity until it is claimed, only the
+     * files directory of the application is taken from the current activity. If it is not claimed within the
+     * {@link #setPrefetchTimeToLive(long) time to live} it is cancelled and dropped.
+     *
+     * @param dataSource The name of the data source to prefetch.
+     * @param context The current activity.
+     * @return The token to claim the prefetched data source with, or null if it could not be prefetched.
+     */
+    public static String prefetch(String dataSource, Activity context)
+    {
+        DataSource product = produce(dataSource, null);
+        if (!(product instanceof BaseDataSource)) {
+            return null;
+        }
+        final BaseDataSource prefetched = (BaseDataSource) product;
+        if (context != null) {
+            prefetched.setFilesDir(context.getFilesDir());
+        }
+
+        final String token = dataSource + "#" + prefetchTokens.incrementAndGet();
+        Prefetched entry = new Prefetched(prefetched);
+        synchronized (prefetchedDataSources) {
+            prefetchedDataSources.put(token, entry);
+        }
+        entry.expiry = DataSourceExecutor.schedule(new Runnable()
+        {
+            public void run()
+            {
+                Prefetched expired;
+                synchronized (prefetchedDataSources) {
+                    expired = prefetchedDataSources.remove(token);
+                }
+                if (expired != null) {
+                    expired.dataSource.cancel();
+                }
+            }
+        }, prefetched.getPriority(), prefetchTimeToLive);
+        prefetched.prefetch();
+        return token;
+    }
+
+    /**
+     * Claim a prefetched data source for the activity that will show it.
+     *
+     * @param token The token returned by {@link #prefetch(String, Activity)}, or null.
+     * @param context The activity claiming the data source.
+     * @return The prefetched data source now bound to the activity, or null if none is waiting under the token.
+     */
+    public static DataSource claim(String token, Activity context)
+    {
+        if (token == null) {
+            return null;
+        }
+        Prefetched entry;
+        synchronized (prefetchedDataSources) {
+            entry = prefetchedDataSources.remove(token);
+        }
+        if (entry == null) {
+            return null;
+        }
+        ScheduledFuture<?> expiry = entry.expiry;
+        if (expiry != null) {
+            expiry.cancel(false);
+        }
+        entry.dataSource.setContext(context);
+        return entry.dataSource;
+    }
+
+    /**
+     * A prefetched data source waiting to be claimed.
+     */
+    private static class Prefetched
+    {
+        private final BaseDataSource dataSource;
+        private volatile ScheduledFuture<?> expiry;
+
+        Prefetched(BaseDataSource dataSource)
+        {
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * Produces data sources through a constructor resolved at registration.
+     */
+    private static class ConstructorProducer implements DataSourceProducer
+    {
+        private final Constructor constructor;
+
+        ConstructorProducer(Constructor constructor)
+        {
+            this.constructor = constructor;
+        }
+
+        public DataSource produce(Activity context)
+        {
+            try {
+                return (DataSource)constructor.newInstance(context);
+            }
+            catch (Throwable e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
     }
 
 
@@ -0,0 +1,208 @@
+package com.scottbyrns.mva.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A memory cache of loaded entities shared by every data source.
+ * <p/>
+ * Entities are keyed by the name a data source was registered under in {@link DataSourceFactory} plus a key chosen by
+ * the data source, see {@link BaseDataSource#getCacheKey()}. The cache holds at most {@link #getMaxEntries()} entities,
+ * evicting the least recently used first, and entities older than {@link #getTimeToLive()} are treated as missing
+ * by {@link #get(String, Object)}. They remain available to {@link #getStale(String, Object)} until evicted.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 10:05 AM
+ */
+public class EntityCache
+{
+    /**
+     * The default number of entities held.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 32;
+
+    /**
+     * The default time an entity is served from the cache, five minutes.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = 5 * 60 * 1000;
+
+    private static int maxEntries = DEFAULT_MAX_ENTRIES;
+    private static long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private static final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest)
+        {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Get the maximum number of entities held.
+     *
+     * @return The maximum number of entities held.
+     */
+    public static synchronized int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    /**
+     * Set the maximum number of entities held. The least recently used entities are evicted to fit.
+     *
+     * @param maxEntries The maximum number of entities held.
+     */
+    public static synchronized void setMaxEntries(int maxEntries)
+    {
+        EntityCache.maxEntries = maxEntries;
+        Iterator<CacheKey> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Get the time in milliseconds an entity is served from the cache after it was stored.
+     *
+     * @return The time to live of cached entities.
+     */
+    public static synchronized long getTimeToLive()
+    {
+        return timeToLive;
+    }
+
+    /**
+     * Set the time in milliseconds an entity is served from the cache after it was stored.
+     *
+     * @param timeToLive The time to live of cached entities.
+     */
+    public static synchronized void setTimeToLive(long timeToLive)
+    {
+        EntityCache.timeToLive = timeToLive;
+    }
+
+    /**
+     * Get a cached entity.
+     *
+     * @param dataSourceName The name of the data source the entity belongs to.
+     * @param key The key the data source stored the entity under.
+     *
+     * @return The cached entity or null if there is none or it has expired.
+     */
+    public static synchronized Object get(String dataSourceName, Object key)
+    {
+        CacheKey cacheKey = new CacheKey(dataSourceName, key);
+        CacheEntry entry = entries.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.storedAt > timeToLive) {
+            entries.remove(cacheKey);
+            return null;
+        }
+        return entry.entity;
+    }
+
+    /**
+     * Get a cached entity regardless of its age.
+     *
+     * @param dataSourceName The name of the data source the entity belongs to.
+     * @param key The key the data source stored the entity under.
+     *
+     * @return The cached entity or null if there is none.
+     */
+    public static synchronized Object getStale(String dataSourceName, Object key)
+    {
+        CacheEntry entry = entries.get(new CacheKey(dataSourceName, key));
+        return entry == null ? null : entry.entity;
+    }
+
+    /**
+     * Store an entity in the cache.
+     *
+     * @param dataSourceName The name of the data source the entity belongs to.
+     * @param key The key to store the entity under.
+     * @param entity The entity to store. Null removes the entity.
+     */
+    public static synchronized void put(String dataSourceName, Object key, Object entity)
+    {
+        if (entity == null) {
+            remove(dataSourceName, key);
+            return;
+        }
+        entries.put(new CacheKey(dataSourceName, key), new CacheEntry(entity, System.currentTimeMillis()));
+    }
+
+    /**
+     * Remove an entity from the cache.
+     *
+     * @param dataSourceName The name of the data source the entity belongs to.
+     * @param key The key the entity was stored under.
+     */
+    public static synchronized void remove(String dataSourceName, Object key)
+    {
+        entries.remove(new CacheKey(dataSourceName, key));
+    }
+
+    /**
+     * Remove every entity from the cache.
+     */
+    public static synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    private static class CacheKey
+    {
+        private final String dataSourceName;
+        private final Object key;
+
+        CacheKey(String dataSourceName, Object key)
+        {
+            this.dataSourceName = dataSourceName;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return dataSourceName.equals(other.dataSourceName) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * dataSourceName.hashCode() + key.hashCode();
+        }
+    }
+
+    private static class CacheEntry
+    {
+        private final Object entity;
+        private final long storedAt;
+
+        CacheEntry(Object entity, long storedAt)
+        {
+            this.entity = entity;
+            this.storedAt = storedAt;
+        }
+    }
+}
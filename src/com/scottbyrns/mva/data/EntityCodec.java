@@ -0,0 +1,39 @@
+package com.scottbyrns.mva.data;
+
+import java.io.IOException;
+
+/**
+ * Converts a data sources entity to and from bytes so it can be written to local storage.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 9:05 AM
+ */
+public interface EntityCodec<Entity>
+{
+    /**
+     * Encode an entity.
+     *
+     * @param entity The entity to encode.
+     * @return The encoded entity.
+     */
+    public byte[] encode(Entity entity) throws IOException;
+
+    /**
+     * Decode an entity.
+     *
+     * @param bytes Bytes produced by {@link #encode(Object)}.
+     * @return The decoded entity.
+     */
+    public Entity decode(byte[] bytes) throws IOException;
+}
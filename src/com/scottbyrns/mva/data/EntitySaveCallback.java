@@ -0,0 +1,38 @@
+package com.scottbyrns.mva.data;
+
+/**
+ * Reports the outcome of saving one entity among many, such as an entity of a batch queued with
+ * {@link BaseDataSource#queueSave(Object)} or a journaled entity of a {@link BaseDataSource#setWriteBehind(boolean)
+ * write behind} data source.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 5:10 PM
+ */
+public interface EntitySaveCallback<Entity>
+{
+    /**
+     * Called when an entity has been saved.
+     *
+     * @param entity The entity that was saved.
+     */
+    public void entitySaved(Entity entity);
+
+    /**
+     * Called when an entity failed to save.
+     *
+     * @param entity The entity that failed to save, or null if a journaled entity could not be decoded.
+     * @param reason The reason the entity failed to save.
+     */
+    public void entityFailedToSave(Entity entity, Throwable reason);
+}
@@ -0,0 +1,31 @@
+package com.scottbyrns.mva.data;
+
+/**
+ * What a data source does when it is asked to load while a load is already in flight.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 9:40 AM
+ */
+public enum InFlightPolicy
+{
+    /**
+     * Join the load that is in flight. Its result is delivered to the data sources callbacks once.
+     */
+    JOIN,
+
+    /**
+     * Cancel the load that is in flight and start a new one. Only the newest load delivers a result.
+     */
+    REPLACE
+}
@@ -0,0 +1,34 @@
+package com.scottbyrns.mva.data;
+
+/**
+ * How a data source delivers its entity when it is loaded.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 10:40 AM
+ */
+public enum LoadMode
+{
+    /**
+     * Show the loading indicator and deliver the entity once it has loaded.
+     */
+    BLOCKING,
+
+    /**
+     * Deliver the last known entity right away and refresh it in the background.
+     * <p/>
+     * If the refreshed entity differs from the one delivered the data update callback is executed. Without a last
+     * known entity the load behaves as {@link #BLOCKING}.
+     */
+    STALE_WHILE_REVALIDATE
+}
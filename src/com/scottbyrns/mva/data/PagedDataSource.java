@@ -0,0 +1,431 @@
+package com.scottbyrns.mva.data;
+
+import android.app.Activity;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A data source for large collections that loads them a page at a time.
+ * <p/>
+ * Loading the data source loads only the first page. Further pages are loaded by {@link #loadNextPage()}, usually
+ * driven by the scroll position of the list showing them through {@link #onScroll(int, int)}. Each page that loads
+ * executes the {@link #setDataPageCallback(DataCallback) page callback}, and each page that fails to load executes the
+ * {@link #setDataPageFailureCallback(DataCallback) page failure callback}.
+ * <p/>
+ * At most {@link #getMaxPages()} pages are held. When a page is loaded past the window the page at the other end is
+ * dropped, and it is loaded again if the list scrolls back to it. The entity of the data source is the list of the
+ * items in the window, and {@link #getWindowOffset()} is the position of its first item in the whole collection. The
+ * pages are held by the entity itself, so a load that is rejected or merged leaves them in step with the entity kept.
+ * <p/>
+ * Page loads are queued behind the other work of the data source, retried by its {@link #getRetryPolicy() retry policy}
+ * and guarded by its circuit breaker as a load of the entity is.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 11:05 AM
+ */
+public abstract class PagedDataSource<Item> extends BaseDataSource<List<Item>>
+{
+    private boolean pageLoading;
+
+    private int maxPages = 5;
+    private int prefetchDistance = 10;
+    private DataCallback dataPageCallback;
+    private DataCallback dataPageFailureCallback;
+    private volatile Throwable pageFailure;
+
+    /**
+     * Create a new paged data source.
+     *
+     * @param context The activity context is used for interacting with the Android framework.
+     */
+    public PagedDataSource(Activity context)
+    {
+        super(context);
+    }
+
+    /**
+     * Perform a load of one page of the collection.
+     *
+     * @param page The index of the page, starting at zero.
+     * @return The items of the page. Null or an empty list marks the end of the collection, or its start when the page
+     * before the window is loaded.
+     */
+    protected abstract List<Item> loadPage(int page) throws Throwable;
+
+    public int getMaxPages()
+    {
+        return maxPages;
+    }
+
+    /**
+     * Set the number of pages held in memory.
+     *
+     * @param maxPages The number of pages held, at least two.
+     */
+    public void setMaxPages(int maxPages)
+    {
+        this.maxPages = Math.max(2, maxPages);
+    }
+
+    public int getPrefetchDistance()
+    {
+        return prefetchDistance;
+    }
+
+    /**
+     * Set how close to either end of the window the list may scroll before the adjacent page is loaded.
+     *
+     * @param prefetchDistance The distance in items.
+     */
+    public void setPrefetchDistance(int prefetchDistance)
+    {
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    public DataCallback getDataPageCallback()
+    {
+        return dataPageCallback;
+    }
+
+    /**
+     * Set the page load callback.
+     *
+     * This method is called each time a page after the first has loaded and the entity has been updated.
+     *
+     * @param dataPageCallback The callback to execute when a page has loaded.
+     */
+    public void setDataPageCallback(DataCallback dataPageCallback)
+    {
+        this.dataPageCallback = dataPageCallback;
+    }
+
+    public DataCallback getDataPageFailureCallback()
+    {
+        return dataPageFailureCallback;
+    }
+
+    /**
+     * Set the page load failure callback.
+     *
+     * This method is called each time a page after the first fails to load. The pages already loaded are kept.
+     *
+     * @param dataPageFailureCallback The callback to execute when a page has failed to load.
+     */
+    public void setDataPageFailureCallback(DataCallback dataPageFailureCallback)
+    {
+        this.dataPageFailureCallback = dataPageFailureCallback;
+    }
+
+    /**
+     * Get what caused the most recent page load to fail.
+     *
+     * @return The cause of the failure or null if the most recent page load succeeded.
+     */
+    public Throwable getPageFailure()
+    {
+        return pageFailure;
+    }
+
+    /**
+     * Get the position in the whole collection of the first item of the entity.
+     *
+     * @return The number of items before the window.
+     */
+    public int getWindowOffset()
+    {
+        return getWindow().offset;
+    }
+
+    /**
+     * Check if the last page of the collection is in the window.
+     *
+     * @return True if there are no more pages to load after the window.
+     */
+    public boolean isLastPageLoaded()
+    {
+        return getWindow().last;
+    }
+
+    /**
+     * Tell the data source which items of the entity are visible, loading the adjacent page when an end is near.
+     *
+     * @param firstVisibleItem The position in the entity of the first visible item.
+     * @param visibleItemCount The number of visible items.
+     */
+    public void onScroll(int firstVisibleItem, int visibleItemCount)
+    {
+        List<Item> window = getEntity();
+        if (window == null) {
+            return;
+        }
+        if (firstVisibleItem + visibleItemCount >= window.size() - getPrefetchDistance()) {
+            loadNextPage();
+        }
+        else if (firstVisibleItem <= getPrefetchDistance()) {
+            loadPreviousPage();
+        }
+    }
+
+    /**
+     * Load the page after the window.
+     */
+    public void loadNextPage()
+    {
+        synchronized (this) {
+            if (pageLoading || !getWindow().hasNextPage()) {
+                return;
+            }
+            pageLoading = true;
+        }
+        startPageLoad(true);
+    }
+
+    /**
+     * Load the page before the window, if it was dropped.
+     */
+    public void loadPreviousPage()
+    {
+        synchronized (this) {
+            if (pageLoading || !getWindow().hasPreviousPage()) {
+                return;
+            }
+            pageLoading = true;
+        }
+        startPageLoad(false);
+    }
+
+    @Override
+    public void cancel()
+    {
+        super.cancel();
+        synchronized (this) {
+            pageLoading = false;
+        }
+    }
+
+    @Override
+    protected void loadEntity() throws Throwable
+    {
+        setEntity(Window.first(loadPage(0)));
+    }
+
+    /**
+     * Get the pages of the entity.
+     *
+     * An entity set as a plain list, such as one decoded from a snapshot, is taken as the first page of the collection.
+     */
+    private Window<Item> getWindow()
+    {
+        return Window.of(getEntity());
+    }
+
+    private void startPageLoad(final boolean append)
+    {
+        new Operation()
+        {
+            private List<Item> entity;
+            private Window<Item> window;
+            private List<Item> items;
+
+            void perform()
+            {
+                if (isFirstAttempt()) {
+                    // A load that ran ahead of this page may have moved the window.
+                    entity = getEntity();
+                    window = Window.of(entity);
+                    if (append ? !window.hasNextPage() : !window.hasPreviousPage()) {
+                        endPageLoad();
+                        return;
+                    }
+                }
+                final int page = append ? window.firstPage + window.pages.size() : window.firstPage - 1;
+                Throwable cause = loadOnce(new PartialLoad()
+                {
+                    public void load() throws Throwable
+                    {
+                        items = loadPage(page);
+                    }
+                });
+                if (cause != null && retryLater(cause)) {
+                    return;
+                }
+                pageFailure = cause;
+                endPageLoad();
+                if (isCancelled()) {
+                    return;
+                }
+                if (cause != null) {
+                    try {
+                        getDataPageFailureCallback().execute();
+                    }
+                    catch (NullPointerException e) {
+                        // NOP No callback set.
+                    }
+                    return;
+                }
+
+                Window<Item> loaded = append ? window.append(items, getMaxPages()) : window.prepend(items, getMaxPages());
+                synchronized (PagedDataSource.this) {
+                    if (getEntity() != entity) {
+                        // The entity was replaced while the page loaded, the page may no longer be next to it.
+                        return;
+                    }
+                    setEntity(loaded);
+                }
+                if (items == null || items.isEmpty()) {
+                    // Only an end of the collection was found.
+                    return;
+                }
+                try {
+                    getDataPageCallback().execute();
+                }
+                catch (NullPointerException e) {
+                    // NOP No callback set.
+                }
+            }
+        }.start();
+    }
+
+    private synchronized void endPageLoad()
+    {
+        pageLoading = false;
+    }
+
+    /**
+     * The items of the pages held and where they sit in the whole collection.
+     */
+    private static final class Window<Item> extends AbstractList<Item>
+    {
+        private final List<List<Item>> pages;
+        // The sizes of the pages dropped from the front of the window when they were held, the nearest last.
+        private final List<Integer> droppedSizes;
+        private final int firstPage;
+        private final int offset;
+        private final boolean first;
+        private final boolean last;
+        private final List<Item> items;
+
+        private Window(List<List<Item>> pages,
+                       List<Integer> droppedSizes,
+                       int firstPage,
+                       int offset,
+                       boolean first,
+                       boolean last)
+        {
+            this.pages = pages;
+            this.droppedSizes = droppedSizes;
+            this.firstPage = firstPage;
+            this.offset = offset;
+            this.first = first;
+            this.last = last;
+            List<Item> items = new ArrayList<Item>();
+            for (List<Item> page : pages) {
+                items.addAll(page);
+            }
+            this.items = items;
+        }
+
+        /**
+         * @param entity The entity of the data source, a plain list is taken as the first page.
+         */
+        static <Item> Window<Item> of(List<Item> entity)
+        {
+            return entity instanceof Window ? (Window<Item>) entity : first(entity);
+        }
+
+        /**
+         * @param items The items of the first page, null or empty for an empty collection.
+         */
+        static <Item> Window<Item> first(List<Item> items)
+        {
+            boolean empty = items == null || items.isEmpty();
+            List<List<Item>> pages = empty ? Collections.<List<Item>>emptyList() : Collections.singletonList(items);
+            return new Window<Item>(pages, Collections.<Integer>emptyList(), 0, 0, true, empty);
+        }
+
+        boolean hasNextPage()
+        {
+            return !last && !pages.isEmpty();
+        }
+
+        boolean hasPreviousPage()
+        {
+            return !first;
+        }
+
+        /**
+         * Add the page after the window, dropping pages from the front past the most held.
+         */
+        Window<Item> append(List<Item> page, int maxPages)
+        {
+            if (page == null || page.isEmpty()) {
+                return new Window<Item>(pages, droppedSizes, firstPage, offset, first, true);
+            }
+            LinkedList<List<Item>> appended = new LinkedList<List<Item>>(pages);
+            List<Integer> dropped = new ArrayList<Integer>(droppedSizes);
+            int firstPage = this.firstPage;
+            int offset = this.offset;
+            boolean first = this.first;
+            appended.addLast(page);
+            while (appended.size() > maxPages) {
+                int size = appended.removeFirst().size();
+                dropped.add(size);
+                offset += size;
+                firstPage++;
+                first = false;
+            }
+            return new Window<Item>(appended, dropped, firstPage, offset, first, false);
+        }
+
+        /**
+         * Add the page before the window, dropping pages from the back past the most held.
+         *
+         * The page starts where it started when it was dropped, even if its size has changed since.
+         */
+        Window<Item> prepend(List<Item> page, int maxPages)
+        {
+            if (page == null || page.isEmpty()) {
+                // The collection now starts at the window.
+                return new Window<Item>(pages, Collections.<Integer>emptyList(), firstPage, 0, true, last);
+            }
+            LinkedList<List<Item>> prepended = new LinkedList<List<Item>>(pages);
+            List<Integer> dropped = new ArrayList<Integer>(droppedSizes);
+            int size = dropped.isEmpty() ? page.size() : dropped.remove(dropped.size() - 1);
+            int firstPage = this.firstPage - 1;
+            boolean last = this.last;
+            prepended.addFirst(page);
+            while (prepended.size() > maxPages) {
+                prepended.removeLast();
+                last = false;
+            }
+            return new Window<Item>(prepended, dropped, firstPage, Math.max(0, offset - size), firstPage == 0, last);
+        }
+
+        @Override
+        public Item get(int index)
+        {
+            return items.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return items.size();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.scottbyrns.mva.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.scottbyrns.mva.reflection.Retry;
+
+/**
+ * How a data source retries a failed load or save.
+ * <p/>
+ * Each retry waits twice as long as the one before, starting at the initial delay and capped at the maximum delay, less
+ * a random fraction of up to the jitter so many clients do not retry in lock step. Only failures that are instances of
+ * one of the retried classes are retried.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 3:55 PM
+ */
+public class RetryPolicy
+{
+    /**
+     * Never retry.
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0);
+
+    private static final Map<Class, RetryPolicy> annotated = new ConcurrentHashMap<Class, RetryPolicy>();
+
+    private final int maxAttempts;
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double jitter;
+    private final Class<? extends Throwable>[] retryOn;
+
+    /**
+     * @param maxAttempts  The number of attempts including the first.
+     * @param initialDelay The delay in milliseconds before the second attempt.
+     * @param maxDelay     The longest delay in milliseconds between attempts.
+     * @param jitter       The fraction of each delay, from 0 to 1, taken off at random.
+     * @param retryOn      The failures worth retrying. Every exception is retried if none are given.
+     */
+    public RetryPolicy(int maxAttempts, long initialDelay, long maxDelay, double jitter, Class<? extends Throwable>... retryOn)
+    {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("A retry policy needs at least one attempt.");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialDelay = Math.max(0, initialDelay);
+        this.maxDelay = Math.max(this.initialDelay, maxDelay);
+        this.jitter = jitter;
+        this.retryOn = retryOn.length == 0 ? new Class[] {Exception.class} : retryOn.clone();
+    }
+
+    /**
+     * Get the policy a data source class declares with {@link Retry}.
+     *
+     * @param dataSource The data source class.
+     * @return The declared policy or {@link #NONE}.
+     */
+    public static RetryPolicy forClass(Class dataSource)
+    {
+        RetryPolicy policy = annotated.get(dataSource);
+        if (policy == null) {
+            Retry retry = (Retry) dataSource.getAnnotation(Retry.class);
+            policy = retry == null ? NONE : new RetryPolicy(retry.maxAttempts(),
+                                                            retry.initialDelay(),
+                                                            retry.maxDelay(),
+                                                            retry.jitter(),
+                                                            retry.retryOn());
+            annotated.put(dataSource, policy);
+        }
+        return policy;
+    }
+
+    public int getMaxAttempts()
+    {
+        return maxAttempts;
+    }
+
+    public long getInitialDelay()
+    {
+        return initialDelay;
+    }
+
+    public long getMaxDelay()
+    {
+        return maxDelay;
+    }
+
+    public double getJitter()
+    {
+        return jitter;
+    }
+
+    /**
+     * Check if a failed attempt should be retried.
+     *
+     * @param attempt The number of the attempt that failed, starting at one.
+     * @param cause   The cause of the failure.
+     * @return True to retry.
+     */
+    public boolean shouldRetry(int attempt, Throwable cause)
+    {
+        if (attempt >= maxAttempts) {
+            return false;
+        }
+        for (Class<? extends Throwable> type : retryOn) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the time to wait after a failed attempt.
+     *
+     * @param attempt The number of the attempt that failed, starting at one.
+     * @return The delay in milliseconds.
+     */
+    public long getDelay(int attempt)
+    {
+        long delay = initialDelay;
+        for (int i = 1; i < attempt && delay < maxDelay; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, maxDelay);
+        return delay - (long) (delay * jitter * Math.random());
+    }
+}
@@ -0,0 +1,314 @@
+package com.scottbyrns.mva.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An append only file of entities waiting to be saved by a write behind data source.
+ * <p/>
+ * Each save is appended as an entry and synced to disk before {@link #append(byte[])} returns. Once the entry has been
+ * saved it is acknowledged by appending an acknowledgement record. Entries without an acknowledgement are returned by
+ * {@link #pending()}, including those left over from a previous run of the application. A partly written record at the
+ * end of the file, left by a crash, is ignored.
+ * <p/>
+ * The sequence numbers of the pending entries are kept in memory, so an acknowledgement only appends its record. Once
+ * the acknowledged records outnumber the pending entries the file is rewritten with only the pending entries, keeping
+ * the cost of each acknowledgement constant on average.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 9:05 AM
+ */
+public class SaveJournal
+{
+    private static final byte ENTRY = 1;
+    private static final byte ACKNOWLEDGEMENT = 2;
+
+    /**
+     * The fewest acknowledgement records worth rewriting the file for.
+     */
+    private static final int MIN_COMPACTION = 64;
+
+    private static final Map<String, SaveJournal> journals = new HashMap<String, SaveJournal>();
+
+    private final File file;
+    private final Map<Long, Integer> attempts = new HashMap<Long, Integer>();
+    private Set<Long> pendingSequences;
+    private int acknowledged;
+    private long nextSequence = -1;
+    private boolean draining;
+
+    /**
+     * Get the journal kept in a file. Every caller asking for the same file shares one journal.
+     *
+     * @param file The journal file.
+     * @return The journal.
+     */
+    public static SaveJournal open(File file)
+    {
+        synchronized (journals) {
+            String path = file.getAbsolutePath();
+            SaveJournal journal = journals.get(path);
+            if (journal == null) {
+                journal = new SaveJournal(file);
+                journals.put(path, journal);
+            }
+            return journal;
+        }
+    }
+
+    private SaveJournal(File file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Append an entry to the journal.
+     *
+     * @param bytes The encoded entity.
+     * @return The sequence number of the entry.
+     */
+    public synchronized long append(byte[] bytes) throws IOException
+    {
+        if (pendingSequences == null) {
+            read();
+        }
+        long sequence = nextSequence++;
+        FileOutputStream stream = new FileOutputStream(file, true);
+        try {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeByte(ENTRY);
+            out.writeLong(sequence);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.flush();
+            stream.getFD().sync();
+        }
+        finally {
+            stream.close();
+        }
+        pendingSequences.add(sequence);
+        return sequence;
+    }
+
+    /**
+     * Acknowledge that an entry has been saved.
+     *
+     * When no entries are left pending the journal file is truncated, and once the acknowledgements outnumber the
+     * pending entries it is compacted.
+     *
+     * @param sequence The sequence number of the entry.
+     */
+    public synchronized void acknowledge(long sequence) throws IOException
+    {
+        if (pendingSequences == null) {
+            read();
+        }
+        attempts.remove(sequence);
+        if (!pendingSequences.remove(sequence)) {
+            return;
+        }
+        if (pendingSequences.isEmpty()) {
+            new FileOutputStream(file).close();
+            acknowledged = 0;
+            return;
+        }
+        FileOutputStream stream = new FileOutputStream(file, true);
+        try {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeByte(ACKNOWLEDGEMENT);
+            out.writeLong(sequence);
+            out.flush();
+            stream.getFD().sync();
+        }
+        finally {
+            stream.close();
+        }
+        if (++acknowledged >= Math.max(MIN_COMPACTION, pendingSequences.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the file with only the pending entries.
+     *
+     * The entries are written to a new file that replaces the journal once it is synced, so a crash leaves one or the
+     * other whole.
+     */
+    private void compact() throws IOException
+    {
+        Map<Long, Entry> entries = read();
+        File compacted = new File(file.getPath() + ".compact");
+        FileOutputStream stream = new FileOutputStream(compacted);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            for (Entry entry : entries.values()) {
+                out.writeByte(ENTRY);
+                out.writeLong(entry.getSequence());
+                out.writeInt(entry.getBytes().length);
+                out.write(entry.getBytes());
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        finally {
+            stream.close();
+        }
+        if (!compacted.renameTo(file)) {
+            compacted.delete();
+            throw new IOException("Could not replace " + file + " with its compacted journal.");
+        }
+        acknowledged = 0;
+    }
+
+    /**
+     * Count a failed attempt to save an entry.
+     *
+     * Attempts are counted while the application runs, an entry left over from a previous run starts again at zero.
+     *
+     * @param sequence The sequence number of the entry.
+     * @return The number of failed attempts to save the entry.
+     */
+    public synchronized int failed(long sequence)
+    {
+        Integer failed = attempts.get(sequence);
+        failed = failed == null ? 1 : failed + 1;
+        attempts.put(sequence, failed);
+        return failed;
+    }
+
+    /**
+     * Get the entries that have not been acknowledged, oldest first.
+     *
+     * @return The pending entries.
+     */
+    public synchronized List<Entry> pending() throws IOException
+    {
+        return new ArrayList<Entry>(read().values());
+    }
+
+    /**
+     * Claim the right to drain the journal so only one drainer runs at a time.
+     *
+     * @return True if the caller should drain the journal and later call {@link #endDrain()}.
+     */
+    synchronized boolean beginDrain()
+    {
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    /**
+     * Release the right to drain the journal.
+     */
+    synchronized void endDrain()
+    {
+        draining = false;
+    }
+
+    private Map<Long, Entry> read() throws IOException
+    {
+        Map<Long, Entry> entries = new LinkedHashMap<Long, Entry>();
+        long last = -1;
+        long complete = 0;
+        if (file.exists()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    long sequence = in.readLong();
+                    if (type == ENTRY) {
+                        int length = in.readInt();
+                        if (length < 0) {
+                            break;
+                        }
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        entries.put(sequence, new Entry(sequence, bytes));
+                        complete += 13 + bytes.length;
+                    }
+                    else if (type == ACKNOWLEDGEMENT) {
+                        entries.remove(sequence);
+                        complete += 9;
+                    }
+                    else {
+                        break;
+                    }
+                    last = Math.max(last, sequence);
+                }
+            }
+            catch (EOFException e) {
+                // NOP End of the journal or a partly written record.
+            }
+            finally {
+                in.close();
+            }
+            if (file.length() > complete) {
+                // Drop the partly written record so later appends can be read back.
+                RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+                try {
+                    truncate.setLength(complete);
+                }
+                finally {
+                    truncate.close();
+                }
+            }
+        }
+        nextSequence = Math.max(nextSequence, last + 1);
+        pendingSequences = new LinkedHashSet<Long>(entries.keySet());
+        return entries;
+    }
+
+    /**
+     * An entity waiting to be saved.
+     */
+    public static class Entry
+    {
+        private final long sequence;
+        private final byte[] bytes;
+
+        Entry(long sequence, byte[] bytes)
+        {
+            this.sequence = sequence;
+            this.bytes = bytes;
+        }
+
+        public long getSequence()
+        {
+            return sequence;
+        }
+
+        public byte[] getBytes()
+        {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.scottbyrns.mva.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent binary snapshots of entities, so a data source can show its last entity before its first load after a
+ * restart of the application.
+ * <p/>
+ * Each snapshot is a file in the store directory written through a memory mapped buffer, synced to disk and then
+ * renamed over the previous snapshot so a crash leaves either the old snapshot or the new one. Snapshots carry the
+ * version of the codec that encoded them and a checksum, and a snapshot that fails its checksum is deleted. When the
+ * snapshots together grow past the size bound the least recently used are evicted.
+ * <p/>
+ * The store uses only the plain JVM and may be used off Android.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 4:25 PM
+ */
+public class SnapshotStore
+{
+    /**
+     * The default size bound of a store in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    private static final int MAGIC = 0x4D564153;
+    private static final int FORMAT = 1;
+    // magic, format, schema version, written at, length, checksum
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 4 + 8;
+    private static final String SUFFIX = ".snapshot";
+
+    private static final Map<String, SnapshotStore> stores = new HashMap<String, SnapshotStore>();
+
+    private final File directory;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+
+    /**
+     * Get the store kept in a directory. Every caller asking for the same directory shares one store.
+     *
+     * @param directory The store directory, created if missing.
+     * @return The store.
+     */
+    public static SnapshotStore open(File directory)
+    {
+        synchronized (stores) {
+            String path = directory.getAbsolutePath();
+            SnapshotStore store = stores.get(path);
+            if (store == null) {
+                store = new SnapshotStore(directory);
+                stores.put(path, store);
+            }
+            return store;
+        }
+    }
+
+    private SnapshotStore(File directory)
+    {
+        this.directory = directory;
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    public synchronized long getMaxBytes()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Set the size bound of the store, evicting snapshots if the store is over it.
+     *
+     * @param maxBytes The most bytes the snapshots may take together.
+     */
+    public synchronized void setMaxBytes(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+        evict(null);
+    }
+
+    /**
+     * Write the snapshot of a key, replacing the previous one.
+     *
+     * @param key     The key of the snapshot.
+     * @param version The version of the codec that encoded the bytes.
+     * @param bytes   The encoded entity.
+     */
+    public synchronized void write(String key, int version, byte[] bytes) throws IOException
+    {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File file = getFile(key);
+        File temporary = new File(directory, file.getName() + ".tmp");
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+
+        RandomAccessFile output = new RandomAccessFile(temporary, "rw");
+        try {
+            output.setLength(HEADER_BYTES + bytes.length);
+            MappedByteBuffer buffer = output.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + bytes.length);
+            buffer.putInt(MAGIC)
+                  .putInt(FORMAT)
+                  .putInt(version)
+                  .putLong(System.currentTimeMillis())
+                  .putInt(bytes.length)
+                  .putLong(checksum.getValue())
+                  .put(bytes);
+            buffer.force();
+        }
+        finally {
+            output.close();
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            throw new IOException("Could not replace " + file);
+        }
+        evict(file);
+    }
+
+    /**
+     * Read the snapshot of a key.
+     *
+     * @param key The key of the snapshot.
+     * @return The snapshot or null if there is none or it was damaged.
+     */
+    public synchronized Snapshot read(String key) throws IOException
+    {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        Snapshot snapshot = null;
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+            if (buffer.getInt() == MAGIC && buffer.getInt() == FORMAT) {
+                int version = buffer.getInt();
+                long writtenAt = buffer.getLong();
+                int length = buffer.getInt();
+                long expected = buffer.getLong();
+                if (length >= 0 && length == buffer.remaining()) {
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    CRC32 checksum = new CRC32();
+                    checksum.update(bytes);
+                    if (checksum.getValue() == expected) {
+                        snapshot = new Snapshot(version, writtenAt, bytes);
+                    }
+                }
+            }
+        }
+        catch (BufferUnderflowException e) {
+            // Shorter than a header, damaged.
+        }
+        finally {
+            input.close();
+        }
+
+        if (snapshot == null) {
+            file.delete();
+        }
+        else {
+            // The modification time orders snapshots for eviction.
+            file.setLastModified(System.currentTimeMillis());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Delete the snapshot of a key.
+     *
+     * @param key The key of the snapshot.
+     */
+    public synchronized void remove(String key)
+    {
+        getFile(key).delete();
+    }
+
+    /**
+     * Delete every snapshot.
+     */
+    public synchronized void clear()
+    {
+        for (File file : listSnapshots()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Get the size of the snapshots together.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getSize()
+    {
+        long size = 0;
+        for (File file : listSnapshots()) {
+            size += file.length();
+        }
+        return size;
+    }
+
+    /**
+     * Delete the least recently used snapshots until the store is within its bound.
+     *
+     * @param keep A snapshot not to evict, or null.
+     */
+    private void evict(File keep)
+    {
+        File[] files = listSnapshots();
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+        if (size <= maxBytes) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>()
+        {
+            public int compare(File first, File second)
+            {
+                long difference = first.lastModified() - second.lastModified();
+                return difference < 0 ? -1 : (difference == 0 ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < files.length && size > maxBytes; i++) {
+            if (!files[i].equals(keep)) {
+                size -= files[i].length();
+                files[i].delete();
+            }
+        }
+    }
+
+    private File[] listSnapshots()
+    {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        int count = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX)) {
+                files[count++] = file;
+            }
+        }
+        return Arrays.copyOf(files, count);
+    }
+
+    /**
+     * Keys are hashed into file names so any key is safe to use.
+     */
+    private File getFile(String key)
+    {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder name = new StringBuilder(digest.length * 2 + SUFFIX.length());
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return new File(directory, name.append(SUFFIX).toString());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A snapshot read from the store.
+     */
+    public static class Snapshot
+    {
+        private final int version;
+        private final long writtenAt;
+        private final byte[] bytes;
+
+        Snapshot(int version, long writtenAt, byte[] bytes)
+        {
+            this.version = version;
+            this.writtenAt = writtenAt;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return The version of the codec that encoded the snapshot.
+         */
+        public int getVersion()
+        {
+            return version;
+        }
+
+        /**
+         * @return When the snapshot was written, in milliseconds since the epoch.
+         */
+        public long getWrittenAt()
+        {
+            return writtenAt;
+        }
+
+        /**
+         * @return The encoded entity.
+         */
+        public byte[] getBytes()
+        {
+            return bytes;
+        }
+    }
+}
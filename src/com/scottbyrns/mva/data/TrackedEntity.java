@@ -0,0 +1,33 @@
+package com.scottbyrns.mva.data;
+
+/**
+ * An entity that records which of its fields and collection items have changed, so a {@link BaseDataSource} saves
+ * only the changes.
+ * <p/>
+ * Implementations mark their {@link ChangeSet} from their setters and collection mutators. The data source clears it
+ * when the entity is loaded or saved and marks everything changed when the entity is replaced with
+ * {@link BaseDataSource#setEntity(Object)}.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 6:40 PM
+ */
+public interface TrackedEntity
+{
+    /**
+     * Get the changes made to the entity since it was last loaded or saved.
+     *
+     * @return The change set of the entity, the same instance on every call.
+     */
+    public ChangeSet getChanges();
+}
@@ -0,0 +1,44 @@
+package com.scottbyrns.mva.data;
+
+import java.io.IOException;
+
+/**
+ * An entity codec whose encoding changes over time.
+ * <p/>
+ * Bytes stored by the codec are stored with its version. Bytes stored by another version are decoded through
+ * {@link #decode(byte[], int)} so the codec can migrate them. Bytes stored by a codec that is not versioned are
+ * treated as version 0.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 4:20 PM
+ */
+public interface VersionedEntityCodec<Entity> extends EntityCodec<Entity>
+{
+    /**
+     * Get the version of the encoding produced by {@link #encode(Object)}.
+     *
+     * @return The version, increased whenever the encoding changes.
+     */
+    public int getVersion();
+
+    /**
+     * Decode an entity encoded by another version of the codec.
+     *
+     * @param bytes   Bytes produced by {@link #encode(Object)} of the given version.
+     * @param version The version that encoded the bytes.
+     * @return The decoded entity.
+     * @throws IOException If the bytes cannot be migrated, they are then discarded.
+     */
+    public Entity decode(byte[] bytes, int version) throws IOException;
+}
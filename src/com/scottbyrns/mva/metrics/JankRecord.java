@@ -0,0 +1,117 @@
+package com.scottbyrns.mva.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How often one callback of one activity ran over the frame budget of the {@link JankWatchdog}, with the stack samples
+ * of its longest run.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 7:20 PM
+ */
+public class JankRecord
+{
+    private final String activity;
+    private final String callback;
+    private int calls;
+    private int janks;
+    private long totalNanos;
+    private long worstNanos;
+    private List<StackTraceElement[]> worstSamples = Collections.emptyList();
+
+    JankRecord(String activity, String callback)
+    {
+        this.activity = activity;
+        this.callback = callback;
+    }
+
+    synchronized void record(long durationNanos, long budgetNanos, List<StackTraceElement[]> samples)
+    {
+        calls++;
+        totalNanos += durationNanos;
+        if (durationNanos > budgetNanos) {
+            janks++;
+        }
+        if (durationNanos > worstNanos) {
+            worstNanos = durationNanos;
+            worstSamples = Collections.unmodifiableList(samples);
+        }
+    }
+
+    /**
+     * @return The class name of the activity.
+     */
+    public String getActivity()
+    {
+        return activity;
+    }
+
+    /**
+     * @return The name of the callback.
+     */
+    public String getCallback()
+    {
+        return callback;
+    }
+
+    /**
+     * @return The number of times the callback ran.
+     */
+    public synchronized int getCalls()
+    {
+        return calls;
+    }
+
+    /**
+     * @return The number of times the callback ran over the budget.
+     */
+    public synchronized int getJanks()
+    {
+        return janks;
+    }
+
+    /**
+     * @return The time spent in the callback in nanoseconds.
+     */
+    public synchronized long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    /**
+     * @return The longest run of the callback in nanoseconds.
+     */
+    public synchronized long getWorstNanos()
+    {
+        return worstNanos;
+    }
+
+    /**
+     * Get the stacks sampled during the longest run of the callback.
+     *
+     * @return The stack samples, oldest first, empty if the run was not long enough to be sampled.
+     */
+    public synchronized List<StackTraceElement[]> getWorstSamples()
+    {
+        return worstSamples;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return activity + "." + callback + " janked " + janks + "/" + calls + " worst "
+               + String.format("%.3fms", worstNanos / 1000000.0);
+    }
+}
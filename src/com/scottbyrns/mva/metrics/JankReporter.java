@@ -0,0 +1,36 @@
+package com.scottbyrns.mva.metrics;
+
+import java.util.List;
+
+/**
+ * Receives the UI callbacks that ran over the frame budget of the {@link JankWatchdog}.
+ * <p/>
+ * Reports are made on the UI thread as the callback returns, so a reporter should only record them.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 7:10 PM
+ */
+public interface JankReporter
+{
+    /**
+     * A callback ran over the frame budget.
+     *
+     * @param activity      The class name of the activity.
+     * @param callback      The name of the callback.
+     * @param durationNanos How long the callback ran in nanoseconds.
+     * @param budgetNanos   The frame budget in nanoseconds.
+     * @param samples       The stacks of the UI thread sampled while the callback ran over half the budget, oldest first.
+     */
+    public void jank(String activity, String callback, long durationNanos, long budgetNanos, List<StackTraceElement[]> samples);
+}
@@ -0,0 +1,311 @@
+package com.scottbyrns.mva.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the UI callbacks a {@link com.scottbyrns.mva.ModelViewActivity} dispatches against a frame budget.
+ * <p/>
+ * The watchdog is off by default and costs a single volatile read per callback while off. Once
+ * {@link #setEnabled(boolean) enabled} every callback is timed and recorded per activity and callback in a
+ * {@link JankRecord}, and a sampler thread takes the stack of the UI thread while a callback runs past half the
+ * budget. Each callback schedules a single check at half the budget, cancelled when the callback ends, so the sampler
+ * does nothing while no callback runs long. Callbacks may nest, each is timed and sampled on its own. Callbacks over
+ * the budget are passed to the {@link #setReporter(JankReporter) reporter} if there is one.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 7:25 PM
+ */
+public class JankWatchdog
+{
+    /**
+     * The default frame budget in milliseconds, one frame at 60 frames a second.
+     */
+    public static final long DEFAULT_FRAME_BUDGET = 16;
+
+    /**
+     * The default time in milliseconds between stack samples.
+     */
+    public static final long DEFAULT_SAMPLE_INTERVAL = 4;
+
+    /**
+     * The most stack samples kept of one callback.
+     */
+    public static final int MAX_SAMPLES = 16;
+
+    private static volatile boolean enabled;
+    private static volatile JankReporter reporter;
+    private static volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FRAME_BUDGET);
+    private static volatile long sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+    private static ScheduledExecutorService sampler;
+
+    private static final Map<String, JankRecord> records = new ConcurrentHashMap<String, JankRecord>();
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Turn the watchdog on or off.
+     *
+     * @param enabled True to time callbacks.
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        JankWatchdog.enabled = enabled;
+    }
+
+    public static JankReporter getReporter()
+    {
+        return reporter;
+    }
+
+    /**
+     * Set the reporter callbacks over the budget are passed to.
+     *
+     * @param reporter The reporter or null for none.
+     */
+    public static void setReporter(JankReporter reporter)
+    {
+        JankWatchdog.reporter = reporter;
+    }
+
+    /**
+     * Get the frame budget.
+     *
+     * @return The longest a callback should run in milliseconds.
+     */
+    public static long getFrameBudget()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    /**
+     * Set the frame budget.
+     *
+     * @param budgetMillis The longest a callback should run in milliseconds.
+     */
+    public static void setFrameBudget(long budgetMillis)
+    {
+        budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Set the time between stack samples of a callback running past half the budget.
+     *
+     * @param intervalMillis The sample interval in milliseconds, at least one.
+     */
+    public static void setSampleInterval(long intervalMillis)
+    {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Sample interval must be at least one millisecond.");
+        }
+        sampleInterval = intervalMillis;
+    }
+
+    /**
+     * Start timing a callback on the current thread.
+     *
+     * @param activity The class name of the activity.
+     * @param callback The name of the callback.
+     * @return The watch to pass to {@link #end(Watch)}, or null if the watchdog is off.
+     */
+    public static Watch begin(String activity, String callback)
+    {
+        if (!enabled) {
+            return null;
+        }
+        Watch watch = new Watch(activity, callback);
+        watch.schedule(budgetNanos / 2);
+        return watch;
+    }
+
+    /**
+     * Stop timing a callback and record it.
+     *
+     * @param watch The watch returned by {@link #begin(String, String)}, or null.
+     */
+    public static void end(Watch watch)
+    {
+        if (watch == null) {
+            return;
+        }
+        long duration = System.nanoTime() - watch.startedAt;
+        watch.stop();
+        long budget = budgetNanos;
+        List<StackTraceElement[]> samples = watch.getSamples();
+        getRecord(watch.activity, watch.callback).record(duration, budget, samples);
+        JankReporter currentReporter = reporter;
+        if (duration > budget && currentReporter != null) {
+            currentReporter.jank(watch.activity, watch.callback, duration, budget, samples);
+        }
+    }
+
+    /**
+     * Get the record of a callback of an activity.
+     *
+     * @param activity The class name of the activity.
+     * @param callback The name of the callback.
+     * @return The record of the callback.
+     */
+    public static JankRecord getRecord(String activity, String callback)
+    {
+        String key = activity + "#" + callback;
+        JankRecord record = records.get(key);
+        if (record == null) {
+            synchronized (records) {
+                record = records.get(key);
+                if (record == null) {
+                    record = new JankRecord(activity, callback);
+                    records.put(key, record);
+                }
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Get the callbacks that ran over the budget at least once.
+     *
+     * @return The records of the offending callbacks, longest worst run first.
+     */
+    public static List<JankRecord> getOffenders()
+    {
+        List<JankRecord> offenders = new ArrayList<JankRecord>();
+        for (JankRecord record : records.values()) {
+            if (record.getJanks() > 0) {
+                offenders.add(record);
+            }
+        }
+        Collections.sort(offenders, new Comparator<JankRecord>()
+        {
+            public int compare(JankRecord first, JankRecord second)
+            {
+                long a = first.getWorstNanos();
+                long b = second.getWorstNanos();
+                return a > b ? -1 : (a == b ? 0 : 1);
+            }
+        });
+        return offenders;
+    }
+
+    /**
+     * Forget every recorded callback.
+     */
+    public static void reset()
+    {
+        records.clear();
+    }
+
+    private static synchronized ScheduledExecutorService getSampler()
+    {
+        if (sampler == null) {
+            sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "JankWatchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sampler;
+    }
+
+    /**
+     * A callback being timed.
+     */
+    public static class Watch
+    {
+        private final String activity;
+        private final String callback;
+        private final Thread thread = Thread.currentThread();
+        private final long startedAt = System.nanoTime();
+        private final Runnable check = new Runnable()
+        {
+            public void run()
+            {
+                sample();
+            }
+        };
+        private List<StackTraceElement[]> samples;
+        private ScheduledFuture<?> scheduled;
+        private boolean stopped;
+
+        Watch(String activity, String callback)
+        {
+            this.activity = activity;
+            this.callback = callback;
+        }
+
+        /**
+         * Check on the callback after a delay, unless it has ended by then.
+         */
+        private synchronized void schedule(long delayNanos)
+        {
+            if (!stopped) {
+                scheduled = getSampler().schedule(check, delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private synchronized void stop()
+        {
+            stopped = true;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                scheduled = null;
+            }
+        }
+
+        /**
+         * Take a stack sample of the callback still running and check on it again after the sample interval.
+         */
+        private void sample()
+        {
+            StackTraceElement[] stack = thread.getStackTrace();
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                if (samples == null) {
+                    samples = new ArrayList<StackTraceElement[]>();
+                }
+                samples.add(stack);
+                if (samples.size() < MAX_SAMPLES) {
+                    schedule(TimeUnit.MILLISECONDS.toNanos(sampleInterval));
+                }
+            }
+        }
+
+        private synchronized List<StackTraceElement[]> getSamples()
+        {
+            if (samples == null) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<StackTraceElement[]>(samples);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.scottbyrns.mva.metrics;
+
+/**
+ * A histogram of durations with power of two buckets in microseconds.
+ * <p/>
+ * Recording is constant time and the histogram takes a fixed amount of memory however many durations are recorded.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 1:10 PM
+ */
+public class LatencyHistogram
+{
+    private static final int BUCKETS = 40;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Record a duration.
+     *
+     * @param durationNanos The duration in nanoseconds.
+     */
+    public synchronized void record(long durationNanos)
+    {
+        long micros = Math.max(0, durationNanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts[bucket]++;
+        count++;
+        totalNanos += durationNanos;
+        maxNanos = Math.max(maxNanos, durationNanos);
+    }
+
+    public synchronized long getCount()
+    {
+        return count;
+    }
+
+    public synchronized long getMeanNanos()
+    {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public synchronized long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    /**
+     * Get a percentile of the recorded durations.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound in nanoseconds of the bucket holding the percentile, or zero if nothing was recorded.
+     */
+    public synchronized long getPercentileNanos(double percentile)
+    {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(maxNanos, (1L << bucket) * 1000);
+            }
+        }
+        return maxNanos;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "count=" + count
+               + " mean=" + getMeanNanos() / 1000 + "us"
+               + " p50=" + getPercentileNanos(50) / 1000 + "us"
+               + " p90=" + getPercentileNanos(90) / 1000 + "us"
+               + " p99=" + getPercentileNanos(99) / 1000 + "us"
+               + " max=" + maxNanos / 1000 + "us";
+    }
+}
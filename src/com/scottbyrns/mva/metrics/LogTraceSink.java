@@ -0,0 +1,45 @@
+package com.scottbyrns.mva.metrics;
+
+import android.util.Log;
+
+/**
+ * Writes every trace to the log on one line, as a warning when a phase ran over its budget.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:55 PM
+ */
+public class LogTraceSink implements TraceSink
+{
+    private final String tag;
+
+    public LogTraceSink()
+    {
+        this("StartupTrace");
+    }
+
+    public LogTraceSink(String tag)
+    {
+        this.tag = tag;
+    }
+
+    public void trace(StartupTrace trace)
+    {
+        if (trace.getOverBudget().isEmpty()) {
+            Log.i(tag, trace.toString());
+        }
+        else {
+            Log.w(tag, trace.toString());
+        }
+    }
+}
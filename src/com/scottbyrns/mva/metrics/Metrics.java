@@ -0,0 +1,209 @@
+package com.scottbyrns.mva.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timing and failure metrics for the load, save and dispatch lifecycle of data sources and activities.
+ * <p/>
+ * Metrics are off by default and cost a single volatile read per measurement point while off. Once
+ * {@link #setEnabled(boolean) enabled} every phase is recorded in a {@link LatencyHistogram} per source and phase, the
+ * number of loads and saves in flight is counted per source, failures are counted per source and cause, and every
+ * measurement is passed to the {@link #setReporter(MetricsReporter) reporter} if there is one.
+ * <p/>
+ * Sources are data sources, named as they were registered with the
+ * {@link com.scottbyrns.mva.data.DataSourceFactory}, and activities, named by class.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 1:10 PM
+ */
+public class Metrics
+{
+    private static volatile boolean enabled;
+    private static volatile MetricsReporter reporter;
+
+    private static final Map<String, SourceMetrics> sources = new ConcurrentHashMap<String, SourceMetrics>();
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Turn recording on or off.
+     *
+     * @param enabled True to record metrics.
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        Metrics.enabled = enabled;
+    }
+
+    public static MetricsReporter getReporter()
+    {
+        return reporter;
+    }
+
+    /**
+     * Set the reporter every measurement is passed to.
+     *
+     * @param reporter The reporter or null for none.
+     */
+    public static void setReporter(MetricsReporter reporter)
+    {
+        Metrics.reporter = reporter;
+    }
+
+    /**
+     * Record the duration of a phase.
+     *
+     * @param source The data source or activity the phase belongs to.
+     * @param phase The phase.
+     * @param durationNanos How long the phase took in nanoseconds.
+     */
+    public static void timing(String source, Phase phase, long durationNanos)
+    {
+        if (!enabled) {
+            return;
+        }
+        getSource(source).getHistogram(phase).record(durationNanos);
+        MetricsReporter current = reporter;
+        if (current != null) {
+            current.timing(source, phase, durationNanos);
+        }
+    }
+
+    /**
+     * Record the failure of a phase.
+     *
+     * @param source The data source the phase belongs to.
+     * @param phase The phase.
+     * @param cause The cause of the failure.
+     */
+    public static void failure(String source, Phase phase, Throwable cause)
+    {
+        if (!enabled) {
+            return;
+        }
+        getSource(source).countFailure(cause);
+        MetricsReporter current = reporter;
+        if (current != null) {
+            current.failure(source, phase, cause);
+        }
+    }
+
+    /**
+     * Change the number of loads and saves of a source in flight.
+     *
+     * @param source The data source.
+     * @param delta One when work is queued, minus one when it has finished or been cancelled.
+     */
+    public static void inFlight(String source, int delta)
+    {
+        if (!enabled) {
+            return;
+        }
+        getSource(source).inFlight.addAndGet(delta);
+    }
+
+    /**
+     * Get the histogram of a phase of a source.
+     *
+     * @param source The data source or activity.
+     * @param phase The phase.
+     * @return The histogram of the recorded durations.
+     */
+    public static LatencyHistogram getHistogram(String source, Phase phase)
+    {
+        return getSource(source).getHistogram(phase);
+    }
+
+    /**
+     * Get the number of loads and saves of a source queued or running.
+     *
+     * @param source The data source.
+     * @return The number of loads and saves in flight.
+     */
+    public static int getInFlight(String source)
+    {
+        return getSource(source).inFlight.get();
+    }
+
+    /**
+     * Get the failures of a source counted by the class of their cause.
+     *
+     * @param source The data source.
+     * @return A map from the name of each cause class to the number of failures it caused.
+     */
+    public static Map<String, Integer> getFailures(String source)
+    {
+        return getSource(source).getFailures();
+    }
+
+    /**
+     * Forget every recorded measurement.
+     */
+    public static void reset()
+    {
+        sources.clear();
+    }
+
+    private static SourceMetrics getSource(String source)
+    {
+        SourceMetrics metrics = sources.get(source);
+        if (metrics == null) {
+            synchronized (sources) {
+                metrics = sources.get(source);
+                if (metrics == null) {
+                    metrics = new SourceMetrics();
+                    sources.put(source, metrics);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static class SourceMetrics
+    {
+        private final EnumMap<Phase, LatencyHistogram> histograms = new EnumMap<Phase, LatencyHistogram>(Phase.class);
+        private final Map<String, Integer> failures = new HashMap<String, Integer>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        synchronized LatencyHistogram getHistogram(Phase phase)
+        {
+            LatencyHistogram histogram = histograms.get(phase);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                histograms.put(phase, histogram);
+            }
+            return histogram;
+        }
+
+        synchronized void countFailure(Throwable cause)
+        {
+            String name = cause == null ? "unknown" : cause.getClass().getName();
+            Integer count = failures.get(name);
+            failures.put(name, count == null ? 1 : count + 1);
+        }
+
+        synchronized Map<String, Integer> getFailures()
+        {
+            return Collections.unmodifiableMap(new HashMap<String, Integer>(failures));
+        }
+    }
+}
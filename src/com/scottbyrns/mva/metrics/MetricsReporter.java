@@ -0,0 +1,42 @@
+package com.scottbyrns.mva.metrics;
+
+/**
+ * Receives every measurement recorded by {@link Metrics} as it happens.
+ * <p/>
+ * Reporters are called on the thread that recorded the measurement, which may be the UI thread, and should return
+ * quickly.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 1:10 PM
+ */
+public interface MetricsReporter
+{
+    /**
+     * A phase was timed.
+     *
+     * @param source The data source or activity the phase belongs to.
+     * @param phase The phase.
+     * @param durationNanos How long the phase took in nanoseconds.
+     */
+    public void timing(String source, Phase phase, long durationNanos);
+
+    /**
+     * A phase failed.
+     *
+     * @param source The data source the phase belongs to.
+     * @param phase The phase.
+     * @param cause The cause of the failure.
+     */
+    public void failure(String source, Phase phase, Throwable cause);
+}
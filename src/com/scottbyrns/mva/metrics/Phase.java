@@ -0,0 +1,56 @@
+package com.scottbyrns.mva.metrics;
+
+/**
+ * A measured step of the load, save and dispatch lifecycle.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 1:10 PM
+ */
+public enum Phase
+{
+    /**
+     * Time a load or save waited on the executor queue before it started.
+     */
+    QUEUE_WAIT,
+
+    /**
+     * {@link com.scottbyrns.mva.data.BaseDataSource#beforeEntityLoad()}.
+     */
+    BEFORE_LOAD,
+
+    /**
+     * {@link com.scottbyrns.mva.data.BaseDataSource#loadEntity()}.
+     */
+    LOAD,
+
+    /**
+     * {@link com.scottbyrns.mva.data.BaseDataSource#afterEntityLoad()}.
+     */
+    AFTER_LOAD,
+
+    /**
+     * {@link com.scottbyrns.mva.data.BaseDataSource#saveEntity()}.
+     */
+    SAVE,
+
+    /**
+     * Time a message from a data source waited on the UI thread before it was handled.
+     */
+    DISPATCH_DELAY,
+
+    /**
+     * Time the UI thread spent handling a message from a data source.
+     */
+    DISPATCH
+}
@@ -0,0 +1,72 @@
+package com.scottbyrns.mva.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the most recent traces in memory, for a debug screen or a bug report.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:55 PM
+ */
+public class RingBufferTraceSink implements TraceSink
+{
+    private final StartupTrace[] traces;
+    private int next;
+    private int size;
+
+    /**
+     * @param capacity The number of traces to keep.
+     */
+    public RingBufferTraceSink(int capacity)
+    {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least one.");
+        }
+        traces = new StartupTrace[capacity];
+    }
+
+    public synchronized void trace(StartupTrace trace)
+    {
+        traces[next] = trace;
+        next = (next + 1) % traces.length;
+        size = Math.min(size + 1, traces.length);
+    }
+
+    /**
+     * Get the traces kept.
+     *
+     * @return The traces, oldest first.
+     */
+    public synchronized List<StartupTrace> getTraces()
+    {
+        List<StartupTrace> copy = new ArrayList<StartupTrace>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(traces[(next - size + i + traces.length) % traces.length]);
+        }
+        return copy;
+    }
+
+    /**
+     * Forget the traces kept.
+     */
+    public synchronized void clear()
+    {
+        for (int i = 0; i < traces.length; i++) {
+            traces[i] = null;
+        }
+        next = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,70 @@
+package com.scottbyrns.mva.metrics;
+
+/**
+ * The steps a {@link com.scottbyrns.mva.ModelViewActivity} takes on the UI thread when it is created, in order.
+ * <p/>
+ * An activity whose layout is {@link com.scottbyrns.mva.view.ViewLayer#isInflatedAsynchronously() inflated in the
+ * background} starts its {@link #LOAD} before waiting in {@link #AWAIT_VIEW} and finishing the view.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:40 PM
+ */
+public enum StartupPhase
+{
+    /**
+     * Finding the {@link com.scottbyrns.mva.reflection.ModelViewConfiguration} of the activity.
+     */
+    CONFIGURATION,
+
+    /**
+     * Producing the view layer.
+     */
+    VIEW_LAYER,
+
+    /**
+     * Inflating the layout of the view layer, taking it from the {@link com.scottbyrns.mva.view.ViewPool} or starting to
+     * inflate it in the background.
+     */
+    CONTENT_VIEW,
+
+    /**
+     * Claiming a prefetched data source or producing a new one.
+     */
+    DATA_SOURCE,
+
+    /**
+     * Waiting for a layout inflated in the background, once the load has started.
+     */
+    AWAIT_VIEW,
+
+    /**
+     * {@link com.scottbyrns.mva.view.ViewLayer#viewDidRender()}.
+     */
+    VIEW_DID_RENDER,
+
+    /**
+     * Creating the loading indicator.
+     */
+    LOADING_INDICATOR,
+
+    /**
+     * {@link com.scottbyrns.mva.ModelViewActivity#viewDidLoad()}.
+     */
+    VIEW_DID_LOAD,
+
+    /**
+     * Wiring the data source callbacks and starting its load.
+     */
+    LOAD
+}
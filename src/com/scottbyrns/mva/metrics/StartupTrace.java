@@ -0,0 +1,196 @@
+package com.scottbyrns.mva.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timeline of a single activity start, phase by phase.
+ * <p/>
+ * A trace is started by {@link StartupTracer#begin(Class)}, moved from phase to phase with {@link #begin(StartupPhase)}
+ * and handed to the sinks by {@link StartupTracer#finish(StartupTrace)}.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:45 PM
+ */
+public class StartupTrace
+{
+    private final String activity;
+    private final long startedAt;
+    private final long startedAtMillis;
+    private final Map<StartupPhase, Long> phaseStarts = new EnumMap<StartupPhase, Long>(StartupPhase.class);
+    private final Map<StartupPhase, Long> durations = new EnumMap<StartupPhase, Long>(StartupPhase.class);
+    private final Map<StartupPhase, Long> budgets = new EnumMap<StartupPhase, Long>(StartupPhase.class);
+
+    private StartupPhase current;
+    private long currentStartedAt;
+    private long finishedAt;
+
+    StartupTrace(String activity)
+    {
+        this.activity = activity;
+        this.startedAtMillis = System.currentTimeMillis();
+        this.startedAt = System.nanoTime();
+    }
+
+    /**
+     * End the current phase and begin the next.
+     *
+     * @param phase The phase beginning.
+     */
+    public void begin(StartupPhase phase)
+    {
+        long now = System.nanoTime();
+        end(now);
+        current = phase;
+        currentStartedAt = now;
+        phaseStarts.put(phase, now - startedAt);
+    }
+
+    void finish(Map<StartupPhase, Long> budgets)
+    {
+        finishedAt = System.nanoTime();
+        end(finishedAt);
+        this.budgets.putAll(budgets);
+    }
+
+    private void end(long now)
+    {
+        if (current != null) {
+            Long previous = durations.get(current);
+            durations.put(current, (previous == null ? 0 : previous) + now - currentStartedAt);
+            current = null;
+        }
+    }
+
+    /**
+     * Get the class name of the activity that was started.
+     *
+     * @return The name of the activity.
+     */
+    public String getActivity()
+    {
+        return activity;
+    }
+
+    /**
+     * Get the wall clock time the start began.
+     *
+     * @return Milliseconds since the epoch.
+     */
+    public long getStartedAtMillis()
+    {
+        return startedAtMillis;
+    }
+
+    /**
+     * Get the time from the start to the beginning of a phase.
+     *
+     * @param phase The phase.
+     * @return The offset in nanoseconds or -1 if the phase did not run.
+     */
+    public long getOffsetNanos(StartupPhase phase)
+    {
+        Long offset = phaseStarts.get(phase);
+        return offset == null ? -1 : offset;
+    }
+
+    /**
+     * Get the time spent in a phase.
+     *
+     * @param phase The phase.
+     * @return The duration in nanoseconds or -1 if the phase did not run.
+     */
+    public long getDurationNanos(StartupPhase phase)
+    {
+        Long duration = durations.get(phase);
+        return duration == null ? -1 : duration;
+    }
+
+    /**
+     * Get the time from the beginning of the start to its end.
+     *
+     * @return The duration in nanoseconds.
+     */
+    public long getTotalNanos()
+    {
+        return finishedAt - startedAt;
+    }
+
+    /**
+     * Get the phases that ran, in order.
+     *
+     * @return The phases of the timeline.
+     */
+    public List<StartupPhase> getPhases()
+    {
+        return Collections.unmodifiableList(new ArrayList<StartupPhase>(durations.keySet()));
+    }
+
+    /**
+     * Get the phases that ran longer than their budget.
+     *
+     * @return The phases over budget, in order.
+     */
+    public List<StartupPhase> getOverBudget()
+    {
+        List<StartupPhase> overBudget = new ArrayList<StartupPhase>();
+        for (Map.Entry<StartupPhase, Long> entry : durations.entrySet()) {
+            Long budget = budgets.get(entry.getKey());
+            if (budget != null && entry.getValue() > budget) {
+                overBudget.add(entry.getKey());
+            }
+        }
+        return overBudget;
+    }
+
+    /**
+     * Get the budget a phase was measured against.
+     *
+     * @param phase The phase.
+     * @return The budget in nanoseconds or -1 if the phase has none.
+     */
+    public long getBudgetNanos(StartupPhase phase)
+    {
+        Long budget = budgets.get(phase);
+        return budget == null ? -1 : budget;
+    }
+
+    /**
+     * Describe the timeline on a single line, marking the phases over budget.
+     *
+     * @return The timeline.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder(activity).append(" started in ").append(millis(getTotalNanos()));
+        for (Map.Entry<StartupPhase, Long> entry : durations.entrySet()) {
+            builder.append(' ').append(entry.getKey()).append('=').append(millis(entry.getValue()));
+            Long budget = budgets.get(entry.getKey());
+            if (budget != null && entry.getValue() > budget) {
+                builder.append("(over ").append(millis(budget)).append(')');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String millis(long nanos)
+    {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0 + "ms";
+    }
+}
@@ -0,0 +1,152 @@
+package com.scottbyrns.mva.metrics;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a phase by phase timeline of every {@link com.scottbyrns.mva.ModelViewActivity} start and hands it to the
+ * registered {@link TraceSink}'s.
+ * <p/>
+ * Tracing is off by default and costs a single volatile read per activity start while off. Phases may be given a
+ * budget, for every activity or for one activity class, and a trace marks the phases that ran over theirs so startup
+ * regressions can be found screen by screen.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:50 PM
+ */
+public class StartupTracer
+{
+    private static volatile boolean enabled;
+
+    private static final List<TraceSink> sinks = new CopyOnWriteArrayList<TraceSink>();
+    private static final Map<StartupPhase, Long> budgets = new EnumMap<StartupPhase, Long>(StartupPhase.class);
+    private static final Map<String, Map<StartupPhase, Long>> activityBudgets = new HashMap<String, Map<StartupPhase, Long>>();
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Turn tracing on or off.
+     *
+     * @param enabled True to trace activity starts.
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        StartupTracer.enabled = enabled;
+    }
+
+    /**
+     * Add a sink for finished traces.
+     *
+     * @param sink The sink.
+     */
+    public static void addSink(TraceSink sink)
+    {
+        sinks.add(sink);
+    }
+
+    /**
+     * Remove a sink.
+     *
+     * @param sink The sink.
+     */
+    public static void removeSink(TraceSink sink)
+    {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Set the budget of a phase for every activity.
+     *
+     * @param phase        The phase.
+     * @param budgetMillis The longest the phase should take in milliseconds, or a negative value for no budget.
+     */
+    public static synchronized void setBudget(StartupPhase phase, long budgetMillis)
+    {
+        putBudget(budgets, phase, budgetMillis);
+    }
+
+    /**
+     * Set the budget of a phase for one activity class, overriding the budget for every activity.
+     *
+     * @param activity     The activity class.
+     * @param phase        The phase.
+     * @param budgetMillis The longest the phase should take in milliseconds, or a negative value for no budget.
+     */
+    public static synchronized void setBudget(Class activity, StartupPhase phase, long budgetMillis)
+    {
+        Map<StartupPhase, Long> activityBudget = activityBudgets.get(activity.getName());
+        if (activityBudget == null) {
+            activityBudget = new EnumMap<StartupPhase, Long>(StartupPhase.class);
+            activityBudgets.put(activity.getName(), activityBudget);
+        }
+        putBudget(activityBudget, phase, budgetMillis);
+    }
+
+    private static void putBudget(Map<StartupPhase, Long> budgets, StartupPhase phase, long budgetMillis)
+    {
+        if (budgetMillis < 0) {
+            budgets.remove(phase);
+        }
+        else {
+            budgets.put(phase, TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        }
+    }
+
+    /**
+     * Begin tracing the start of an activity.
+     *
+     * @param activity The activity class.
+     * @return The trace or null if tracing is off.
+     */
+    public static StartupTrace begin(Class activity)
+    {
+        if (!enabled) {
+            return null;
+        }
+        return new StartupTrace(activity.getName());
+    }
+
+    /**
+     * Finish a trace, measure it against its budgets and hand it to the sinks.
+     *
+     * @param trace The trace, null is ignored.
+     */
+    public static void finish(StartupTrace trace)
+    {
+        if (trace == null) {
+            return;
+        }
+        trace.finish(getBudgets(trace.getActivity()));
+        for (TraceSink sink : sinks) {
+            sink.trace(trace);
+        }
+    }
+
+    private static synchronized Map<StartupPhase, Long> getBudgets(String activity)
+    {
+        Map<StartupPhase, Long> merged = new EnumMap<StartupPhase, Long>(budgets);
+        Map<StartupPhase, Long> activityBudget = activityBudgets.get(activity);
+        if (activityBudget != null) {
+            merged.putAll(activityBudget);
+        }
+        return merged;
+    }
+}
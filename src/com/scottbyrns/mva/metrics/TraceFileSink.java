@@ -0,0 +1,132 @@
+package com.scottbyrns.mva.metrics;
+
+import android.os.Process;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends every trace to a file in the Trace Event Format, which chrome://tracing and Perfetto open directly.
+ * <p/>
+ * Each phase is written as a complete event named after the phase in the category of its activity, and each activity
+ * start is a separate track. The tracks of a run of the application are grouped under its process id, named after the
+ * time the run began, so runs appended to the same file do not collide. The file is a JSON array that is left open so
+ * traces can be appended across runs, which the viewers accept.
+ * <p/>
+ * Traces are written on a thread of the sink, so the activity starts being traced never wait for the disk.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 3:00 PM
+ */
+public class TraceFileSink implements TraceSink
+{
+    private final File file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(new ThreadFactory()
+    {
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "TraceFileSink");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final int process = Process.myPid();
+    private final String run = "run " + new Date();
+    private int track;
+
+    /**
+     * @param file The file to append to, created if missing.
+     */
+    public TraceFileSink(File file)
+    {
+        this.file = file;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public void trace(final StartupTrace trace)
+    {
+        writer.execute(new Runnable()
+        {
+            public void run()
+            {
+                write(trace);
+            }
+        });
+    }
+
+    private void write(StartupTrace trace)
+    {
+        StringBuilder events = new StringBuilder();
+        if (file.length() == 0) {
+            events.append("[\n");
+        }
+        if (track++ == 0) {
+            events.append("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":").append(process)
+                  .append(",\"args\":{\"name\":\"").append(escape(run)).append("\"}},\n");
+        }
+        long start = TimeUnit.MILLISECONDS.toMicros(trace.getStartedAtMillis());
+        appendEvent(events, trace.getActivity(), "startup", start, trace.getTotalNanos(), -1);
+        for (StartupPhase phase : trace.getPhases()) {
+            appendEvent(events,
+                        phase.name(),
+                        trace.getActivity(),
+                        start + TimeUnit.NANOSECONDS.toMicros(trace.getOffsetNanos(phase)),
+                        trace.getDurationNanos(phase),
+                        trace.getOverBudget().contains(phase) ? trace.getBudgetNanos(phase) : -1);
+        }
+
+        try {
+            Writer writer = new FileWriter(file, true);
+            try {
+                writer.write(events.toString());
+            }
+            finally {
+                writer.close();
+            }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void appendEvent(StringBuilder events, String name, String category, long startMicros, long durationNanos, long budgetNanos)
+    {
+        events.append("{\"name\":\"").append(escape(name))
+              .append("\",\"cat\":\"").append(escape(category))
+              .append("\",\"ph\":\"X\",\"ts\":").append(startMicros)
+              .append(",\"dur\":").append(TimeUnit.NANOSECONDS.toMicros(durationNanos))
+              .append(",\"pid\":").append(process)
+              .append(",\"tid\":").append(track);
+        if (budgetNanos >= 0) {
+            events.append(",\"args\":{\"overBudgetMicros\":").append(TimeUnit.NANOSECONDS.toMicros(durationNanos - budgetNanos)).append('}');
+        }
+        events.append("},\n");
+    }
+
+    private static String escape(String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
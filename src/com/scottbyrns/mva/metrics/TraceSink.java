@@ -0,0 +1,30 @@
+package com.scottbyrns.mva.metrics;
+
+/**
+ * Receives the timeline of every traced activity start.
+ * <p/>
+ * Sinks are called on the UI thread once the start has finished and should return quickly.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 2:40 PM
+ */
+public interface TraceSink
+{
+    /**
+     * An activity start was traced.
+     *
+     * @param trace The finished timeline.
+     */
+    public void trace(StartupTrace trace);
+}
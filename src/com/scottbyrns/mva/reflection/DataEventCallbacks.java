@@ -0,0 +1,157 @@
+package com.scottbyrns.mva.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves and invokes the methods of a class annotated with {@link DataEventCallback}.
+ * <p/>
+ * The methods of a class are looked up once and cached, so dispatching an event does not scan the class.
+ * Annotated methods must take no arguments and may have any visibility. A callback overridden by an annotated method of
+ * a subclass is invoked once, through the override, as {@link Class#getMethods()} resolves overrides.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 12:20 PM
+ */
+public class DataEventCallbacks
+{
+    private static final Method[] NONE = new Method[0];
+
+    private static final Map<Class, EnumMap<DataEvents, Method[]>> callbacks = new ConcurrentHashMap<Class, EnumMap<DataEvents, Method[]>>();
+
+    /**
+     * Invoke the callbacks of a target for an event.
+     *
+     * @param target The object to invoke the callbacks on.
+     * @param event The event that occurred.
+     */
+    public static void invoke(Object target, DataEvents event)
+    {
+        for (Method method : getCallbacks(target.getClass(), event)) {
+            try {
+                method.invoke(target);
+            }
+            catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+            catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Get the methods of a class annotated as callbacks for an event.
+     *
+     * @param type The class to look up.
+     * @param event The event.
+     * @return The callback methods, declared in super classes first and each override only once.
+     */
+    public static Method[] getCallbacks(Class type, DataEvents event)
+    {
+        EnumMap<DataEvents, Method[]> resolved = callbacks.get(type);
+        if (resolved == null) {
+            resolved = resolve(type);
+            callbacks.put(type, resolved);
+        }
+        Method[] methods = resolved.get(event);
+        return methods == null ? NONE : methods;
+    }
+
+    private static EnumMap<DataEvents, Method[]> resolve(Class type)
+    {
+        List<Class> hierarchy = new ArrayList<Class>();
+        for (Class current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+
+        // Walk the most derived class first so an annotated override hides the callback it overrides.
+        Set<String> signatures = new HashSet<String>();
+        Set<Method> overridden = new HashSet<Method>();
+        for (int i = hierarchy.size() - 1; i >= 0; i--) {
+            for (Method method : hierarchy.get(i).getDeclaredMethods()) {
+                if (isCallback(method) && !signatures.add(signature(method))) {
+                    overridden.add(method);
+                }
+            }
+        }
+
+        EnumMap<DataEvents, List<Method>> found = new EnumMap<DataEvents, List<Method>>(DataEvents.class);
+        for (Class current : hierarchy) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (!isCallback(method) || overridden.contains(method)) {
+                    continue;
+                }
+                DataEventCallback callback = method.getAnnotation(DataEventCallback.class);
+                method.setAccessible(true);
+                List<Method> methods = found.get(callback.eventName());
+                if (methods == null) {
+                    methods = new ArrayList<Method>();
+                    found.put(callback.eventName(), methods);
+                }
+                methods.add(method);
+            }
+        }
+
+        EnumMap<DataEvents, Method[]> resolved = new EnumMap<DataEvents, Method[]>(DataEvents.class);
+        for (Map.Entry<DataEvents, List<Method>> entry : found.entrySet()) {
+            resolved.put(entry.getKey(), entry.getValue().toArray(new Method[entry.getValue().size()]));
+        }
+        return resolved;
+    }
+
+    private static boolean isCallback(Method method)
+    {
+        if (method.getAnnotation(DataEventCallback.class) == null || Modifier.isStatic(method.getModifiers())) {
+            return false;
+        }
+        if (method.getParameterTypes().length != 0) {
+            throw new IllegalStateException(method + " is a data event callback and must take no arguments.");
+        }
+        return true;
+    }
+
+    /**
+     * Get the key methods overriding each other share.
+     *
+     * Private methods override nothing, and package private methods only those of the same package.
+     */
+    private static String signature(Method method)
+    {
+        int modifiers = method.getModifiers();
+        String owner = method.getDeclaringClass().getName();
+        if (Modifier.isPrivate(modifiers)) {
+            return owner + "#" + method.getName();
+        }
+        if (!Modifier.isPublic(modifiers) && !Modifier.isProtected(modifiers)) {
+            return owner.substring(0, Math.max(0, owner.lastIndexOf('.'))) + "#" + method.getName();
+        }
+        return method.getName();
+    }
+}
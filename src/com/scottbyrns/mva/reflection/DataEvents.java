@@ -20,5 +20,8 @@ public enum DataEvents
     DATA_DID_SAVE,
     DATA_DID_NOT_SAVE,
     DATA_DID_LOAD,
-    DADA_DID_NOT_LOAD
+    DADA_DID_NOT_LOAD,
+    DATA_DID_UPDATE,
+    DATA_DID_LOAD_PAGE,
+    DATA_DID_NOT_LOAD_PAGE
 }
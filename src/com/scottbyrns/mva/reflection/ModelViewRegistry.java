@@ -0,0 +1,81 @@
+package com.scottbyrns.mva.reflection;
+
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configurations of {@link com.scottbyrns.mva.ModelViewActivity}'s registered ahead of time.
+ * <p/>
+ * The registry generated by the model view processor fills this in so activities do not read their
+ * {@link ModelViewConfiguration} annotation reflectively when they are created. Activities that are not registered
+ * fall back to the annotation.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 11:30 AM
+ */
+public class ModelViewRegistry
+{
+    private static Map<Class, ModelViewConfiguration> configurations = new HashMap<Class, ModelViewConfiguration>();
+
+    /**
+     * Register the configuration of an activity.
+     *
+     * @param activity The activity class.
+     * @param dataSource The name of the data source the activity uses.
+     * @param view The name of the view layer the activity uses.
+     */
+    public static void register(Class activity, String dataSource, String view)
+    {
+        configurations.put(activity, new RegisteredConfiguration(dataSource, view));
+    }
+
+    /**
+     * Get the registered configuration of an activity.
+     *
+     * @param activity The activity class.
+     * @return The configuration of the activity or null if it was not registered.
+     */
+    public static ModelViewConfiguration getConfiguration(Class activity)
+    {
+        return configurations.get(activity);
+    }
+
+    private static class RegisteredConfiguration implements ModelViewConfiguration
+    {
+        private final String dataSource;
+        private final String view;
+
+        RegisteredConfiguration(String dataSource, String view)
+        {
+            this.dataSource = dataSource;
+            this.view = view;
+        }
+
+        public String dataSource()
+        {
+            return dataSource;
+        }
+
+        public String view()
+        {
+            return view;
+        }
+
+        public Class<? extends Annotation> annotationType()
+        {
+            return ModelViewConfiguration.class;
+        }
+    }
+}
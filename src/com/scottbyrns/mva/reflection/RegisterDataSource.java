@@ -0,0 +1,32 @@
+package com.scottbyrns.mva.reflection;
+
+/**
+ * An annotation naming a {@link com.scottbyrns.mva.data.DataSource} so the model view processor can register it at
+ * compile time.
+ * <p/>
+ * The annotated class must have a public constructor taking an {@link android.app.Activity}.
+ *
+ *
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/17/26 11:30 AM
+ */
+@java.lang.annotation.Target({java.lang.annotation.ElementType.TYPE})
+@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.CLASS)
+public @interface RegisterDataSource
+{
+    /**
+     * @return The name the data source is referred to by in {@link ModelViewConfiguration#dataSource()}.
+     */
+    String value();
+}
@@ -0,0 +1,52 @@
+package com.scottbyrns.mva.reflection;
+
+/**
+ * Retry failed loads and saves of a data source with exponential backoff.
+ * <p/>
+ * Read once per data source class, see {@link com.scottbyrns.mva.data.RetryPolicy}. A policy registered with
+ * {@link com.scottbyrns.mva.data.DataSourceFactory#registerRetryPolicy} takes precedence.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 3:50 PM
+ */
+@java.lang.annotation.Inherited
+@java.lang.annotation.Target(java.lang.annotation.ElementType.TYPE)
+@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+public @interface Retry
+{
+    /**
+     * The number of attempts including the first.
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * The delay in milliseconds before the second attempt, doubled before each attempt after it.
+     */
+    long initialDelay() default 250;
+
+    /**
+     * The longest delay in milliseconds between attempts.
+     */
+    long maxDelay() default 4000;
+
+    /**
+     * The fraction of each delay, from 0 to 1, taken off at random so clients do not retry in lock step.
+     */
+    double jitter() default 0.5;
+
+    /**
+     * The failures worth retrying, and their subclasses.
+     */
+    Class<? extends Throwable>[] retryOn() default {Exception.class};
+}
@@ -0,0 +1,150 @@
+package com.scottbyrns.mva.view;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+/**
+ * Keeps another indicator from flickering.
+ * <p/>
+ * The indicator is only shown once a load has run longer than the show delay, so quick loads show nothing, and once
+ * shown it stays visible for at least the minimum time. Must only be called on the thread of its handler.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 3:30 PM
+ */
+public class DebouncedLoadingIndicator implements LoadingIndicator
+{
+    /**
+     * The default time in milliseconds to wait before showing the indicator.
+     */
+    public static final long DEFAULT_SHOW_DELAY = 150;
+
+    /**
+     * The default time in milliseconds to keep the indicator visible once shown.
+     */
+    public static final long DEFAULT_MINIMUM_VISIBLE = 500;
+
+    private final Handler handler;
+    private final LoadingIndicator indicator;
+    private long showDelay = DEFAULT_SHOW_DELAY;
+    private long minimumVisible = DEFAULT_MINIMUM_VISIBLE;
+
+    private boolean showPending;
+    private boolean shown;
+    private long shownAt;
+
+    private final Runnable showNow = new Runnable()
+    {
+        public void run()
+        {
+            showPending = false;
+            shown = true;
+            shownAt = SystemClock.uptimeMillis();
+            indicator.show();
+        }
+    };
+
+    private final Runnable hideNow = new Runnable()
+    {
+        public void run()
+        {
+            shown = false;
+            indicator.hide();
+        }
+    };
+
+    /**
+     * @param handler   The handler of the UI thread.
+     * @param indicator The indicator to show and hide.
+     */
+    public DebouncedLoadingIndicator(Handler handler, LoadingIndicator indicator)
+    {
+        this.handler = handler;
+        this.indicator = indicator;
+    }
+
+    public LoadingIndicator getIndicator()
+    {
+        return indicator;
+    }
+
+    public long getShowDelay()
+    {
+        return showDelay;
+    }
+
+    /**
+     * Set the time to wait before showing the indicator.
+     *
+     * @param showDelay The delay in milliseconds, zero to show on the next pass of the UI thread.
+     */
+    public void setShowDelay(long showDelay)
+    {
+        this.showDelay = showDelay;
+    }
+
+    public long getMinimumVisible()
+    {
+        return minimumVisible;
+    }
+
+    /**
+     * Set the time to keep the indicator visible once shown.
+     *
+     * @param minimumVisible The time in milliseconds.
+     */
+    public void setMinimumVisible(long minimumVisible)
+    {
+        this.minimumVisible = minimumVisible;
+    }
+
+    public void show()
+    {
+        handler.removeCallbacks(hideNow);
+        if (shown || showPending) {
+            return;
+        }
+        showPending = true;
+        handler.postDelayed(showNow, showDelay);
+    }
+
+    public void hide()
+    {
+        if (showPending) {
+            handler.removeCallbacks(showNow);
+            showPending = false;
+            return;
+        }
+        if (!shown) {
+            return;
+        }
+        long remaining = minimumVisible - (SystemClock.uptimeMillis() - shownAt);
+        if (remaining > 0) {
+            handler.removeCallbacks(hideNow);
+            handler.postDelayed(hideNow, remaining);
+        }
+        else {
+            hideNow.run();
+        }
+    }
+
+    public void dismiss()
+    {
+        handler.removeCallbacks(showNow);
+        handler.removeCallbacks(hideNow);
+        showPending = false;
+        shown = false;
+        indicator.dismiss();
+    }
+}
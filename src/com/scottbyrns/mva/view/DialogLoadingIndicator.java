@@ -0,0 +1,64 @@
+package com.scottbyrns.mva.view;
+
+import android.app.Activity;
+import android.app.ProgressDialog;
+
+/**
+ * A modal progress dialog, created the first time it is shown.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 3:20 PM
+ */
+public class DialogLoadingIndicator implements LoadingIndicator
+{
+    private final Activity context;
+    private final CharSequence message;
+    private ProgressDialog dialog;
+
+    public DialogLoadingIndicator(Activity context)
+    {
+        this(context, "Please wait...");
+    }
+
+    public DialogLoadingIndicator(Activity context, CharSequence message)
+    {
+        this.context = context;
+        this.message = message;
+    }
+
+    public void show()
+    {
+        if (dialog == null) {
+            dialog = ProgressDialog.show(context, null, message, true, false);
+        }
+        else {
+            dialog.show();
+        }
+    }
+
+    public void hide()
+    {
+        if (dialog != null) {
+            dialog.hide();
+        }
+    }
+
+    public void dismiss()
+    {
+        if (dialog != null) {
+            dialog.dismiss();
+            dialog = null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.scottbyrns.mva.view;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The item level change between two lists, for binding list screens incrementally from {@link ViewLayer#diff}.
+ * <p/>
+ * Items the lists share at their start and end are unchanged. Between them, items at the same position that are not
+ * equal are changed, and whatever is left over is a run of items inserted into the new list or removed from the old
+ * one. Moves are reported as changes. Computing the diff takes a single pass over the lists.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 5:30 PM
+ */
+public class ListDiff
+{
+    private final List<Integer> changed;
+    private final int insertedStart;
+    private final int insertedCount;
+    private final int removedStart;
+    private final int removedCount;
+
+    private ListDiff(List<Integer> changed, int insertedStart, int insertedCount, int removedStart, int removedCount)
+    {
+        this.changed = changed;
+        this.insertedStart = insertedStart;
+        this.insertedCount = insertedCount;
+        this.removedStart = removedStart;
+        this.removedCount = removedCount;
+    }
+
+    /**
+     * Compute the change from one list to another, comparing items with equals.
+     *
+     * @param previous The old list, null for none.
+     * @param current  The new list, null for none.
+     * @return The change, or null if the lists are equal.
+     */
+    public static ListDiff between(List<?> previous, List<?> current)
+    {
+        List<?> from = previous == null ? Collections.emptyList() : previous;
+        List<?> to = current == null ? Collections.emptyList() : current;
+
+        int prefix = 0;
+        int shorter = Math.min(from.size(), to.size());
+        while (prefix < shorter && equal(from.get(prefix), to.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < shorter - prefix
+               && equal(from.get(from.size() - 1 - suffix), to.get(to.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        int fromMiddle = from.size() - prefix - suffix;
+        int toMiddle = to.size() - prefix - suffix;
+        int overlap = Math.min(fromMiddle, toMiddle);
+
+        List<Integer> changed = new ArrayList<Integer>();
+        for (int i = prefix; i < prefix + overlap; i++) {
+            if (!equal(from.get(i), to.get(i))) {
+                changed.add(i);
+            }
+        }
+        int insertedCount = toMiddle - overlap;
+        int removedCount = fromMiddle - overlap;
+        if (changed.isEmpty() && insertedCount == 0 && removedCount == 0) {
+            return null;
+        }
+        return new ListDiff(Collections.unmodifiableList(changed),
+                            prefix + overlap,
+                            insertedCount,
+                            prefix + overlap,
+                            removedCount);
+    }
+
+    private static boolean equal(Object first, Object second)
+    {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    /**
+     * @return The positions, in both lists, of items that changed.
+     */
+    public List<Integer> getChanged()
+    {
+        return changed;
+    }
+
+    /**
+     * @return The position in the new list of the first inserted item.
+     */
+    public int getInsertedStart()
+    {
+        return insertedStart;
+    }
+
+    /**
+     * @return The number of items inserted.
+     */
+    public int getInsertedCount()
+    {
+        return insertedCount;
+    }
+
+    /**
+     * @return The position in the old list of the first removed item.
+     */
+    public int getRemovedStart()
+    {
+        return removedStart;
+    }
+
+    /**
+     * @return The number of items removed.
+     */
+    public int getRemovedCount()
+    {
+        return removedCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "changed " + changed + ", inserted " + insertedCount + " at " + insertedStart + ", removed "
+               + removedCount + " at " + removedStart;
+    }
+}
@@ -0,0 +1,39 @@
+package com.scottbyrns.mva.view;
+
+/**
+ * Shows the user that the data of an activity is loading or saving.
+ * <p/>
+ * Indicators are only called on the UI thread. A {@link ViewLayer} may supply its own, an inline spinner for instance,
+ * in place of the default {@link DialogLoadingIndicator}.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 3:20 PM
+ */
+public interface LoadingIndicator
+{
+    /**
+     * Show the indicator.
+     */
+    public void show();
+
+    /**
+     * Hide the indicator, it may be shown again.
+     */
+    public void hide();
+
+    /**
+     * Hide the indicator and release what it holds, it is shown again by the next call to {@link #show()}.
+     */
+    public void dismiss();
+}
@@ -24,32 +24,44 @@ import java.util.Map;
 public class ViewFactory
 {
 
-    private static Map registeredViews = new HashMap<String, Class>();
+    private static Map<String, ViewLayerProducer> registeredViews = new HashMap<String, ViewLayerProducer>();
 
     /**
      * Register a view layer.
      *
+     * The no argument constructor is resolved once here rather than each time the view layer is produced.
+     *
      * @param viewName The name of the view.
      * @param viewLayer The view layer class.
      */
    	public static void registerViewLayer (String viewName, Class viewLayer)
    	{
-   		registeredViews.put(viewName, viewLayer);
+        try {
+            registerViewLayer(viewName, new ConstructorProducer(viewLayer.getConstructor()));
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(viewLayer.getName() + " has no public no argument constructor.", e);
+        }
    	}
 
+    /**
+     * Register a producer of a view layer.
+     *
+     * @param viewName The name of the view.
+     * @param producer The producer creating the view layer.
+     */
+    public static void registerViewLayer (String viewName, ViewLayerProducer producer)
+    {
+        registeredViews.put(viewName, producer);
+    }
+
    	private static ViewLayer createView(String viewName)
    	{
-   		Class productClass = (Class)registeredViews.get(viewName);
-        try {
-            Constructor viewConstructor = productClass.getConstructor();
-            return (ViewLayer)viewConstructor.newInstance();
-        }
-        catch (Throwable e) {
-            e.printStackTrace();
+   		ViewLayerProducer producer = registeredViews.get(viewName);
+        if (producer == null) {
             return null;
         }
-
-
+        return producer.produce();
    	}
 
     /**
@@ -61,4 +73,28 @@ public class ViewFactory
     public static ViewLayer produce(String viewName) {
         return createView(viewName);
     }
+
+    /**
+     * Produces view layers through a constructor resolved at registration.
+     */
+    private static class ConstructorProducer implements ViewLayerProducer
+    {
+        private final Constructor constructor;
+
+        ConstructorProducer(Constructor constructor)
+        {
+            this.constructor = constructor;
+        }
+
+        public ViewLayer produce()
+        {
+            try {
+                return (ViewLayer)constructor.newInstance();
+            }
+            catch (Throwable e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
 }
\ No newline at end of file
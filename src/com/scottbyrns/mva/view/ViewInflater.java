@@ -0,0 +1,121 @@
+package com.scottbyrns.mva.view;
+
+import android.content.Context;
+import android.os.Handler;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Inflates layouts on a background thread.
+ * <p/>
+ * Most layouts can be inflated off the UI thread as long as none of their views need a looper while being constructed.
+ * A layout that fails to inflate in the background is inflated again on the UI thread, so the listener always
+ * receives a view.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 6:00 PM
+ */
+public class ViewInflater
+{
+    /**
+     * Receives an inflated layout on the UI thread.
+     */
+    public interface OnInflatedListener
+    {
+        /**
+         * @param view     The root of the inflated layout.
+         * @param layoutId The layout that was inflated.
+         */
+        public void onInflated(View view, int layoutId);
+    }
+
+    private static ExecutorService executor;
+
+    /**
+     * Inflate a layout on the background thread.
+     *
+     * @param context  The context to inflate with.
+     * @param layoutId The layout to inflate.
+     * @param parent   The view the layout will be added to, used for its layout parameters only, or null.
+     * @param handler  The handler of the UI thread.
+     * @param listener Receives the view on the UI thread.
+     */
+    public static void inflateAsync(final Context context,
+                                    final int layoutId,
+                                    final ViewGroup parent,
+                                    final Handler handler,
+                                    final OnInflatedListener listener)
+    {
+        execute(new Runnable()
+        {
+            public void run()
+            {
+                View inflated;
+                try {
+                    inflated = inflate(context, layoutId, parent);
+                }
+                catch (RuntimeException e) {
+                    inflated = null;
+                }
+                final View view = inflated;
+                handler.post(new Runnable()
+                {
+                    public void run()
+                    {
+                        listener.onInflated(view != null ? view : inflate(context, layoutId, parent), layoutId);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Inflate a layout on the calling thread without attaching it.
+     *
+     * @param context  The context to inflate with.
+     * @param layoutId The layout to inflate.
+     * @param parent   The view the layout will be added to, used for its layout parameters only, or null.
+     * @return The root of the inflated layout.
+     */
+    public static View inflate(Context context, int layoutId, ViewGroup parent)
+    {
+        return LayoutInflater.from(context).inflate(layoutId, parent, false);
+    }
+
+    /**
+     * Run work on the background inflation thread.
+     *
+     * @param work The work to run.
+     */
+    static synchronized void execute(Runnable work)
+    {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "ViewInflater");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        executor.execute(work);
+    }
+}
@@ -37,4 +37,53 @@ public abstract class ViewLayer
 
     public abstract int getViewId();
     public abstract void viewDidRender();
+
+    /**
+     * Inflate the layout on a background thread while the data source is created and starts loading.
+     *
+     * The activity's {@link com.scottbyrns.mva.ModelViewActivity#viewDidLoad()} and {@link #viewDidRender()} are then
+     * called once the layout is set, after the load has started, and data events wait until they have been.
+     *
+     * @return True to inflate off the UI thread, false by default.
+     */
+    public boolean isInflatedAsynchronously()
+    {
+        return false;
+    }
+
+    /**
+     * Supply the indicator shown while the data of the activity loads, called once the view has rendered.
+     *
+     * @return The indicator, or null for a progress dialog.
+     */
+    public LoadingIndicator getLoadingIndicator()
+    {
+        return null;
+    }
+
+    /**
+     * Work out what changed between the entity on screen and a newly loaded one, called off the UI thread.
+     *
+     * Override this with {@link #bind(Object, Object)} to update only the views that changed. A {@link ListDiff} covers
+     * list screens.
+     *
+     * @param previous The entity last bound, or null if none has been.
+     * @param current  The newly loaded entity.
+     * @return The change to bind, or null if nothing on screen changed. By default the whole new entity.
+     */
+    public Object diff(Object previous, Object current)
+    {
+        return current;
+    }
+
+    /**
+     * Apply a change computed by {@link #diff(Object, Object)} to the views, called on the UI thread before the data
+     * callbacks of the activity.
+     *
+     * @param entity The newly loaded entity.
+     * @param diff   The change, never null.
+     */
+    public void bind(Object entity, Object diff)
+    {
+    }
 }
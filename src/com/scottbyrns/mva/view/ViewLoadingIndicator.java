@@ -0,0 +1,48 @@
+package com.scottbyrns.mva.view;
+
+import android.view.View;
+
+/**
+ * Shows a view of the layout, such as a progress bar, while loading and hides it otherwise.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 3:25 PM
+ */
+public class ViewLoadingIndicator implements LoadingIndicator
+{
+    private final View view;
+
+    /**
+     * @param view The view to show while loading.
+     */
+    public ViewLoadingIndicator(View view)
+    {
+        this.view = view;
+    }
+
+    public void show()
+    {
+        view.setVisibility(View.VISIBLE);
+    }
+
+    public void hide()
+    {
+        view.setVisibility(View.GONE);
+    }
+
+    public void dismiss()
+    {
+        hide();
+    }
+}
@@ -0,0 +1,158 @@
+package com.scottbyrns.mva.view;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.view.View;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * A pool of layouts inflated ahead of time for screens that are opened often.
+ * <p/>
+ * Layouts are inflated on the background inflation thread against a {@link MutableContextWrapper} around the
+ * application context. When an activity acquires one the wrapper is pointed at the activity, and another copy is
+ * inflated in the background to keep the pool full. A pooled layout is inflated with the application's theme rather than
+ * the activity's, so it suits screens that do not set their own theme.
+ * <p/>
+ * Copyright (C) 2012 by Scott Byrns
+ * http://github.com/scottbyrns
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * <p/>
+ * Created 10/18/26 6:10 PM
+ */
+public class ViewPool
+{
+    private static final Map<Integer, LinkedList<View>> pooled = new HashMap<Integer, LinkedList<View>>();
+    private static final Map<Integer, Integer> targets = new HashMap<Integer, Integer>();
+    private static final Map<Integer, Integer> pending = new HashMap<Integer, Integer>();
+
+    private static Context applicationContext;
+
+    /**
+     * Keep a number of copies of a layout inflated ahead of time.
+     *
+     * @param context  Any context of the application.
+     * @param layoutId The layout to pool.
+     * @param count    The number of copies to keep, zero to stop pooling the layout.
+     */
+    public static void preinflate(Context context, int layoutId, int count)
+    {
+        synchronized (pooled) {
+            applicationContext = context.getApplicationContext();
+            if (count <= 0) {
+                targets.remove(layoutId);
+                pooled.remove(layoutId);
+                return;
+            }
+            targets.put(layoutId, count);
+        }
+        refill(layoutId);
+    }
+
+    /**
+     * Take a pooled copy of a layout for an activity.
+     *
+     * @param activity The activity the layout is for.
+     * @param layoutId The layout.
+     * @return The root of the layout, or null if none is pooled.
+     */
+    public static View acquire(Activity activity, int layoutId)
+    {
+        View view;
+        synchronized (pooled) {
+            LinkedList<View> views = pooled.get(layoutId);
+            view = views == null ? null : views.poll();
+        }
+        if (view == null) {
+            return null;
+        }
+        ((MutableContextWrapper) view.getContext()).setBaseContext(activity);
+        refill(layoutId);
+        return view;
+    }
+
+    /**
+     * Get the number of copies of a layout ready to acquire.
+     *
+     * @param layoutId The layout.
+     * @return The number of pooled copies.
+     */
+    public static int getAvailable(int layoutId)
+    {
+        synchronized (pooled) {
+            LinkedList<View> views = pooled.get(layoutId);
+            return views == null ? 0 : views.size();
+        }
+    }
+
+    /**
+     * Stop pooling every layout and drop the pooled copies.
+     */
+    public static void clear()
+    {
+        synchronized (pooled) {
+            targets.clear();
+            pooled.clear();
+        }
+    }
+
+    /**
+     * Inflate copies of a layout in the background until the pool holds its target.
+     */
+    private static void refill(final int layoutId)
+    {
+        final Context context;
+        int missing;
+        synchronized (pooled) {
+            Integer target = targets.get(layoutId);
+            Integer inflating = pending.get(layoutId);
+            LinkedList<View> views = pooled.get(layoutId);
+            missing = (target == null ? 0 : target)
+                      - (views == null ? 0 : views.size())
+                      - (inflating == null ? 0 : inflating);
+            if (missing <= 0) {
+                return;
+            }
+            pending.put(layoutId, (inflating == null ? 0 : inflating) + missing);
+            context = applicationContext;
+        }
+        for (int i = 0; i < missing; i++) {
+            ViewInflater.execute(new Runnable()
+            {
+                public void run()
+                {
+                    View view = null;
+                    try {
+                        view = ViewInflater.inflate(new MutableContextWrapper(context), layoutId, null);
+                    }
+                    catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                    synchronized (pooled) {
+                        pending.put(layoutId, pending.get(layoutId) - 1);
+                        if (view == null || !targets.containsKey(layoutId)) {
+                            return;
+                        }
+                        LinkedList<View> views = pooled.get(layoutId);
+                        if (views == null) {
+                            views = new LinkedList<View>();
+                            pooled.put(layoutId, views);
+                        }
+                        views.add(view);
+                    }
+                }
+            });
+        }
+    }
+}